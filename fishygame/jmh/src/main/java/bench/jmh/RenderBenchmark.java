@@ -0,0 +1,96 @@
+package bench.jmh;
+
+import bench.PredationScaling;
+import entity.Enemy;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import main.GamePanel;
+import main.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark phần vẽ, vẽ vào BufferedImage offscreen nên chạy được headless.
+ * Cá được đặt trong vùng camera nhìn thấy để Enemy.draw thực sự vẽ.
+ *
+ * drawGameUI đo hai trường hợp: HUD không đổi (chỉ blit layer) và điểm đổi mỗi khung
+ * (vẽ lại layer). HUD không phụ thuộc số cá, tham số count chỉ để chung bảng kết quả.
+ *
+ * Chạy: java -jar jmh/target/benchmarks.jar RenderBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int count;
+
+    GamePanel panel;
+    World world;
+    ArrayList<Enemy> enemies;
+    BufferedImage frame;
+    Graphics2D g2;
+    int score;
+
+    @Setup
+    public void setup() {
+        System.setProperty("java.awt.headless", "true");
+        panel = new GamePanel();
+        world = panel.world;
+        enemies = world.aquarium.entities;
+
+        // Bể đúng bằng khung nhìn: mọi con đều nằm trên màn hình
+        int ww = world.worldWidth, wh = world.worldHeight;
+        world.worldWidth = world.screenWidth;
+        world.worldHeight = world.screenHeight;
+        PredationScaling.refill(world, new Random(42), count);
+        world.worldWidth = ww;
+        world.worldHeight = wh;
+        world.cameraX = world.cameraY = world.prevCameraX = world.prevCameraY = 0;
+
+        frame = new BufferedImage(world.screenWidth, world.screenHeight, BufferedImage.TYPE_INT_RGB);
+        g2 = frame.createGraphics();
+        // Sprite cache được làm nóng trong warmup, như khi chơi thật
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2.dispose();
+    }
+
+    /** Enemy.draw của cả bể. */
+    @Benchmark
+    public void enemyDraw() {
+        for (int i = 0; i < enemies.size(); i++) enemies.get(i).draw(g2);
+    }
+
+    /** HUD không đổi: chỉ blit layer đã vẽ sẵn. */
+    @Benchmark
+    public void drawGameUICached() {
+        panel.drawGameUI(g2);
+    }
+
+    /** Điểm đổi mỗi khung: vẽ lại toàn bộ HUD rồi blit. */
+    @Benchmark
+    public void drawGameUIDirty() {
+        world.score = (score = (score + 10) % world.currentLevel.winScore);
+        panel.drawGameUI(g2);
+    }
+}
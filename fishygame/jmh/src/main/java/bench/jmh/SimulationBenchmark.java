@@ -0,0 +1,86 @@
+package bench.jmh;
+
+import bench.PredationScaling;
+import entity.Aquarium;
+import entity.Enemy;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import main.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark các đường nóng của mô phỏng (headless, không load ảnh) theo số cá trong bể.
+ *
+ * Mỗi lần gọi có thể làm cá bị ăn / bị dọn, nên trước mỗi invocation bể được bơm lại
+ * đủ {@code count} con và player được đặt lại (không tính giờ).
+ *
+ * Chạy: java -jar jmh/target/benchmarks.jar SimulationBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int count;
+
+    World world;
+    Aquarium aquarium;
+    ArrayList<Enemy> enemies;
+    Random rand;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        System.setProperty("java.awt.headless", "true");
+        world = new World(780, 640, true);
+        world.deterministic = true;
+        aquarium = world.aquarium;
+        enemies = aquarium.entities;
+        rand = new Random(42);
+    }
+
+    @Setup(Level.Invocation)
+    public void refill() {
+        aquarium.flushRemovals();
+        PredationScaling.refill(world, rand, count);
+        world.lives = 3;
+        world.gameState = world.playState;
+        world.player.resetPosition();
+    }
+
+    @Benchmark
+    public void checkPlayerVsEnemies() {
+        world.cChecker.checkPlayerVsEnemies(world.player, enemies);
+    }
+
+    @Benchmark
+    public void aquariumUpdate() {
+        aquarium.update();
+    }
+
+    @Benchmark
+    public void checkPredatorCollision() {
+        aquarium.checkPredatorCollision();
+    }
+
+    /** Enemy.update của cả bể (AI + di chuyển + animation). */
+    @Benchmark
+    public void enemyUpdate() {
+        for (int i = 0; i < enemies.size(); i++) enemies.get(i).update(true);
+    }
+}
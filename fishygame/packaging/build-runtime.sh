@@ -0,0 +1,41 @@
+#!/bin/sh
+# Đóng gói bản chạy khởi động nhanh (kiosk) vào target/dist:
+#   runtime/       JRE tối giản do jlink tạo (chỉ các module game cần, kèm CDS archive của JDK)
+#   fishygame.jar  game
+#   fishygame.jsa  AppCDS archive tạo từ một lần chạy mẫu (menu + level 1)
+#   fishygame.sh   launcher
+#
+# Cần chạy sau "mvn package" (mvn -B package -Pdist gọi script này ở phase package).
+# Không có DISPLAY thì lần chạy mẫu vẽ offscreen (headless), archive thiếu các class cửa sổ.
+# TRAINING_SECONDS: số giây chơi level 1 trong lần chạy mẫu (mặc định 5).
+set -e
+cd "$(dirname "$0")/.."
+
+JAR=$(ls game/target/fishygame-*.jar | head -n 1)
+DIST=target/dist
+[ -f "$JAR" ] || { echo "game jar not found, run mvn package first" >&2; exit 1; }
+
+rm -rf "$DIST"
+mkdir -p "$DIST"
+
+# 1. Runtime tối giản: không nén module (giải nén làm chậm khởi động), bỏ debug/man/header
+MODULES=$(jdeps --print-module-deps --ignore-missing-deps "$JAR")
+echo "jlink modules: $MODULES"
+jlink --add-modules "$MODULES" \
+      --strip-debug --no-man-pages --no-header-files \
+      --output "$DIST/runtime"
+# CDS archive mặc định cho class của JDK (archive của game ở bước 2 xếp chồng lên trên nó)
+"$DIST/runtime/bin/java" -Xshare:dump > /dev/null
+
+cp "$JAR" "$DIST/fishygame.jar"
+cp packaging/fishygame.sh "$DIST/fishygame.sh"
+chmod +x "$DIST/fishygame.sh"
+
+# 2. Chạy mẫu, ghi các class đã load vào AppCDS archive lúc thoát.
+#    Chạy từ trong $DIST với classpath tương đối, giống hệt launcher, để archive khớp.
+HEADLESS=""
+[ -z "$DISPLAY" ] && HEADLESS="-Djava.awt.headless=true"
+(cd "$DIST" && runtime/bin/java -XX:ArchiveClassesAtExit=fishygame.jsa \
+    -Dfishy.training="${TRAINING_SECONDS:-5}" $HEADLESS -jar fishygame.jar)
+
+du -sh "$DIST/runtime" "$DIST/fishygame.jsa"
@@ -0,0 +1,5 @@
+#!/bin/sh
+# Launcher của bản đóng gói (xem build-runtime.sh): runtime jlink + AppCDS archive.
+# Archive hỏng / không khớp thì JVM tự bỏ qua (-Xshare:auto) và chạy bình thường.
+cd "$(dirname "$0")"
+exec runtime/bin/java -XX:SharedArchiveFile=fishygame.jsa -Xshare:auto -jar fishygame.jar "$@"
@@ -0,0 +1,283 @@
+package audio;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Mixer phần mềm: một thread riêng trộn các voice (PcmBuffer đã decode sẵn) vào
+ * MỘT SourceDataLine duy nhất. Game thread chỉ đẩy lệnh vào CommandQueue (không I/O,
+ * không mở line), nên ăn cá liên tục cũng không tốn thời gian của vòng lặp game.
+ *
+ * - Tối đa MAX_VOICES voice cùng lúc; đầy thì cướp voice không loop phát lâu nhất.
+ * - Mỗi voice có gain riêng; tổng được kẹp về 16-bit.
+ * - Nhạc nền là MusicStream (đọc dần từ file), trộn chung line; đổi bài thì crossfade.
+ * - Không có thiết bị âm thanh (headless) thì mixer tắt, mọi lệnh bị bỏ qua.
+ */
+public final class AudioMixer implements Runnable {
+    public static final float SAMPLE_RATE = 44100f;
+    public static final int MAX_VOICES = 16;
+    private static final int CHUNK_FRAMES = 512;   // ~11.6ms mỗi lần trộn
+    private static final int LINE_FRAMES = 2048;   // buffer của line ~46ms
+
+    private static final class Voice {
+        int id;          // 0 = trống
+        PcmBuffer buffer;
+        int pos;         // frame đang phát
+        float gain;
+        boolean loop;
+        long startedAt;  // để chọn voice cũ nhất khi cướp
+    }
+
+    // Một bài nhạc đang phát hoặc đang fade out
+    private static final class MusicSlot {
+        MusicStream stream; // null = trống
+        float gain;
+        float target;
+        float step;         // thay đổi gain mỗi frame
+    }
+
+    private final Voice[] voices = new Voice[MAX_VOICES];
+    private final MusicSlot[] music = new MusicSlot[3]; // bài mới + tối đa 2 bài đang fade out
+    private final CommandQueue commands = new CommandQueue(256);
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final int[] mix = new int[CHUNK_FRAMES * 2];
+    private final byte[] out = new byte[CHUNK_FRAMES * 4];
+    private SourceDataLine line;
+    private volatile boolean running;
+    private long sequence = 0;
+
+    // Thống kê: activeVoices / voicesStolen chỉ thread mixer ghi;
+    // droppedCommands do các thread gửi lệnh (game thread, EDT) tăng nên dùng AtomicLong
+    public volatile int activeVoices = 0;
+    public volatile long voicesStolen = 0;
+    public final AtomicLong droppedCommands = new AtomicLong();
+
+    public AudioMixer() {
+        for (int i = 0; i < voices.length; i++) voices[i] = new Voice();
+        for (int i = 0; i < music.length; i++) music[i] = new MusicSlot();
+    }
+
+    /** Mở line và chạy thread mixer. @return false nếu không có thiết bị âm thanh */
+    public boolean start() {
+        AudioFormat fmt = new AudioFormat(SAMPLE_RATE, 16, 2, true, false);
+        try {
+            line = AudioSystem.getSourceDataLine(fmt);
+            line.open(fmt, LINE_FRAMES * 4);
+            line.start();
+        } catch (Exception | LinkageError e) {
+            System.err.println("Audio disabled: " + e.getMessage());
+            line = null;
+            return false;
+        }
+        running = true;
+        Thread t = new Thread(this, "audio-mixer");
+        t.setDaemon(true);
+        t.setPriority(Thread.MAX_PRIORITY);
+        t.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // ===================== API CHO GAME THREAD =====================
+
+    /** Phát buffer; trả về id voice (dùng cho stop / setGain), 0 nếu không phát được. */
+    public int play(PcmBuffer buffer, float gain, boolean loop) {
+        if (buffer == null || !running) return 0;
+        int id = nextId.incrementAndGet();
+        if (id == 0) id = nextId.incrementAndGet();
+        return send(CommandQueue.PLAY, id, buffer, gain, loop) ? id : 0;
+    }
+
+    public void stop(int voiceId) {
+        if (voiceId != 0) send(CommandQueue.STOP, voiceId, null, 0f, false);
+    }
+
+    public void stopAll() {
+        send(CommandQueue.STOP_ALL, 0, null, 0f, false);
+    }
+
+    public void setGain(int voiceId, float gain) {
+        if (voiceId != 0) send(CommandQueue.GAIN, voiceId, null, gain, false);
+    }
+
+    /**
+     * Chuyển sang bài stream: bài đang phát fade out, bài mới fade in trong fadeMs.
+     * Không chờ gì; nếu mixer không chạy thì đóng stream luôn.
+     */
+    public void playMusic(MusicStream stream, float gain, int fadeMs) {
+        if (stream == null) return;
+        if (!send(CommandQueue.MUSIC, 0, null, stream, gain, false, msToFrames(fadeMs))) stream.close();
+    }
+
+    /** Fade out rồi dừng nhạc nền (fadeMs = 0: dừng ngay). Không chặn thread gọi. */
+    public void stopMusic(int fadeMs) {
+        send(CommandQueue.MUSIC_STOP, 0, null, null, 0f, false, msToFrames(fadeMs));
+    }
+
+    private static int msToFrames(int ms) {
+        return Math.max(0, Math.round(ms * SAMPLE_RATE / 1000f));
+    }
+
+    private boolean send(int op, int id, PcmBuffer buffer, float gain, boolean loop) {
+        return send(op, id, buffer, null, gain, loop, 0);
+    }
+
+    private boolean send(int op, int id, PcmBuffer buffer, MusicStream stream, float gain, boolean loop, int fade) {
+        if (!running) return false;
+        if (commands.offer(op, id, buffer, stream, gain, loop, fade)) return true;
+        droppedCommands.incrementAndGet();
+        return false;
+    }
+
+    public void close() {
+        running = false;
+    }
+
+    // ===================== THREAD MIXER =====================
+
+    @Override
+    public void run() {
+        while (running) {
+            drainCommands();
+            mixChunk();
+            line.write(out, 0, out.length); // chặn tới khi line còn chỗ: đây là nhịp của mixer
+        }
+        for (MusicSlot m : music) freeMusic(m);
+        line.drain();
+        line.close();
+    }
+
+    private void drainCommands() {
+        CommandQueue.Command c;
+        while ((c = commands.peek()) != null) {
+            switch (c.op) {
+                case CommandQueue.PLAY: {
+                    Voice v = freeVoice();
+                    v.id = c.voiceId;
+                    v.buffer = c.buffer;
+                    v.pos = 0;
+                    v.gain = c.gain;
+                    v.loop = c.loop;
+                    v.startedAt = sequence++;
+                    break;
+                }
+                case CommandQueue.STOP:
+                    for (Voice v : voices) if (v.id == c.voiceId) free(v);
+                    break;
+                case CommandQueue.STOP_ALL:
+                    for (Voice v : voices) free(v);
+                    for (MusicSlot m : music) freeMusic(m);
+                    break;
+                case CommandQueue.MUSIC: {
+                    for (MusicSlot m : music) fade(m, 0f, c.fadeFrames);
+                    MusicSlot slot = freeMusicSlot();
+                    slot.stream = c.stream;
+                    slot.gain = c.fadeFrames > 0 ? 0f : c.gain;
+                    fade(slot, c.gain, c.fadeFrames);
+                    break;
+                }
+                case CommandQueue.MUSIC_STOP:
+                    for (MusicSlot m : music) {
+                        if (c.fadeFrames == 0) freeMusic(m);
+                        else fade(m, 0f, c.fadeFrames);
+                    }
+                    break;
+                case CommandQueue.GAIN:
+                    for (Voice v : voices) if (v.id == c.voiceId) v.gain = c.gain;
+                    break;
+            }
+            commands.release();
+        }
+    }
+
+    // Voice trống, hoặc voice không loop phát lâu nhất (nhạc loop không bị cướp trừ khi hết cách)
+    private Voice freeVoice() {
+        Voice oldest = null;
+        for (Voice v : voices) {
+            if (v.id == 0) return v;
+            if (oldest == null || (oldest.loop && !v.loop)
+                    || (oldest.loop == v.loop && v.startedAt < oldest.startedAt)) oldest = v;
+        }
+        voicesStolen++;
+        return oldest;
+    }
+
+    private static void free(Voice v) {
+        v.id = 0;
+        v.buffer = null;
+    }
+
+    private static void fade(MusicSlot m, float target, int frames) {
+        if (m.stream == null) return;
+        m.target = target;
+        m.step = frames > 0 ? Math.abs(target - m.gain) / frames : Float.MAX_VALUE;
+    }
+
+    // Slot trống; không còn thì bỏ bài nhỏ tiếng nhất (đang fade out)
+    private MusicSlot freeMusicSlot() {
+        MusicSlot quietest = music[0];
+        for (MusicSlot m : music) {
+            if (m.stream == null) return m;
+            if (m.gain < quietest.gain) quietest = m;
+        }
+        freeMusic(quietest);
+        return quietest;
+    }
+
+    private static void freeMusic(MusicSlot m) {
+        if (m.stream != null) m.stream.close(); // chỉ đặt cờ, thread stream tự đóng file
+        m.stream = null;
+    }
+
+    private void mixMusic() {
+        for (MusicSlot m : music) {
+            if (m.stream == null) continue;
+            float from = m.gain;
+            float delta = m.step * CHUNK_FRAMES;
+            float to = m.target > from ? Math.min(m.target, from + delta) : Math.max(m.target, from - delta);
+            m.stream.mixInto(mix, CHUNK_FRAMES, from, to);
+            m.gain = to;
+            if ((m.target == 0f && to <= 0f) || m.stream.finished()) freeMusic(m);
+        }
+    }
+
+    private void mixChunk() {
+        java.util.Arrays.fill(mix, 0);
+        int active = 0;
+        for (Voice v : voices) {
+            if (v.id == 0) continue;
+            active++;
+            short[] s = v.buffer.samples;
+            int frames = v.buffer.frames;
+            int gain = Math.round(v.gain * 256); // gain fixed-point 8 bit
+            int i = 0;
+            while (i < CHUNK_FRAMES) {
+                int n = Math.min(CHUNK_FRAMES - i, frames - v.pos);
+                int src = v.pos * 2, dst = i * 2;
+                for (int k = 0; k < n * 2; k++) mix[dst + k] += (s[src + k] * gain) >> 8;
+                i += n;
+                v.pos += n;
+                if (v.pos >= frames) {
+                    if (v.loop && frames > 0) v.pos = 0;
+                    else { free(v); break; }
+                }
+            }
+        }
+        activeVoices = active;
+        mixMusic();
+
+        for (int k = 0; k < mix.length; k++) {
+            int m = mix[k];
+            if (m > Short.MAX_VALUE) m = Short.MAX_VALUE;
+            else if (m < Short.MIN_VALUE) m = Short.MIN_VALUE;
+            out[2 * k] = (byte) m;
+            out[2 * k + 1] = (byte) (m >> 8);
+        }
+    }
+}
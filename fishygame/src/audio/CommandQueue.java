@@ -0,0 +1,94 @@
+package audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hàng đợi lệnh vòng (ring buffer) cố định từ game/EDT sang thread mixer.
+ * Các slot được cấp sẵn nên offer()/peek() không cấp phát gì.
+ *
+ * Không khóa ở cả hai phía. Phía gửi có thể là game thread hoặc EDT (menu bật nhạc), nên
+ * producer giành slot bằng CAS trên tail rồi công bố bằng số thứ tự riêng của slot
+ * (seq == vị trí + 1 nghĩa là lệnh đã ghi xong). Mixer là consumer duy nhất: chỉ đọc seq
+ * của slot ở head, không bao giờ chờ producer nào.
+ */
+final class CommandQueue {
+    static final int PLAY = 1, STOP = 2, STOP_ALL = 3, GAIN = 4, MUSIC = 5, MUSIC_STOP = 6;
+
+    static final class Command {
+        int op;
+        int voiceId;
+        PcmBuffer buffer;
+        MusicStream stream;
+        float gain;
+        boolean loop;
+        int fadeFrames;
+    }
+
+    private final Command[] slots;
+    private final int mask;
+    // seq[i] == pos: slot trống, chờ producer ghi vị trí pos
+    // seq[i] == pos + 1: lệnh ở vị trí pos đã công bố, chờ mixer đọc
+    private final AtomicLongArray seq;
+    private final AtomicLong tail = new AtomicLong(); // vị trí producer kế tiếp giành
+    private long head = 0; // chỉ thread mixer đọc/ghi
+
+    CommandQueue(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new Command[cap];
+        seq = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) {
+            slots[i] = new Command();
+            seq.set(i, i);
+        }
+        mask = cap - 1;
+    }
+
+    /** @return false nếu hàng đợi đầy (lệnh bị bỏ, thường chỉ là một hiệu ứng) */
+    boolean offer(int op, int voiceId, PcmBuffer buffer, float gain, boolean loop) {
+        return offer(op, voiceId, buffer, null, gain, loop, 0);
+    }
+
+    boolean offer(int op, int voiceId, PcmBuffer buffer, MusicStream stream, float gain,
+                  boolean loop, int fadeFrames) {
+        long t;
+        int i;
+        while (true) {
+            t = tail.get();
+            i = (int) (t & mask);
+            long d = seq.get(i) - t;
+            if (d == 0) {
+                if (tail.compareAndSet(t, t + 1)) break; // slot i là của mình
+            } else if (d < 0) {
+                return false; // mixer chưa trả slot của vòng trước: đầy
+            }
+            // d > 0: producer khác vừa giành t, đọc lại tail
+        }
+        Command c = slots[i];
+        c.op = op;
+        c.voiceId = voiceId;
+        c.buffer = buffer;
+        c.gain = gain;
+        c.loop = loop;
+        c.stream = stream;
+        c.fadeFrames = fadeFrames;
+        seq.lazySet(i, t + 1); // công bố slot cho mixer (release store)
+        return true;
+    }
+
+    /** Chỉ thread mixer gọi. Slot trả về hợp lệ tới lần release() kế tiếp. */
+    Command peek() {
+        int i = (int) (head & mask);
+        return seq.get(i) == head + 1 ? slots[i] : null;
+    }
+
+    /** Chỉ thread mixer gọi, sau khi đã xử lý xong slot peek() trả về. */
+    void release() {
+        int i = (int) (head & mask);
+        Command c = slots[i];
+        c.buffer = null;
+        c.stream = null;
+        seq.lazySet(i, head + slots.length); // trả slot cho producer ở vòng sau
+        head++;
+    }
+}
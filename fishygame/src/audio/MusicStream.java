@@ -0,0 +1,148 @@
+package audio;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.util.concurrent.locks.LockSupport;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+/**
+ * Nhạc nền phát kiểu streaming: một thread đọc file WAV từng đoạn, đổi sang 16-bit stereo
+ * 44.1kHz rồi ghi vào ring buffer nhỏ; thread mixer đọc từ ring này.
+ * Bộ nhớ cố định (RING_FRAMES frame ~ 128KB) dù bài dài bao nhiêu.
+ *
+ * Ring là SPSC: thread stream ghi, thread mixer đọc, chỉ đồng bộ qua hai biến volatile.
+ * close() chỉ đặt cờ, không chờ: thread stream tự đóng file ở vòng lặp kế tiếp.
+ */
+public final class MusicStream implements Runnable {
+    static final int RING_FRAMES = 32768;          // ~0.74s ở 44.1kHz, 128KB
+    private static final int READ_FRAMES = 2048;   // mỗi lần đọc file
+
+    public final String path;
+    private final boolean loop;
+    private final short[] ring = new short[RING_FRAMES * 2];
+    private volatile long written = 0; // frame đã ghi (thread stream)
+    private volatile long read = 0;    // frame đã đọc (thread mixer)
+    private volatile boolean closed = false;
+    private volatile boolean ended = false;
+
+    // Resample tuyến tính theo luồng: vị trí lẻ + frame trước đó
+    private double step, frac;
+    private short prevL, prevR;
+    private boolean havePrev;
+
+    private MusicStream(String path, boolean loop) {
+        this.path = path;
+        this.loop = loop;
+    }
+
+    /** Mở bài và bắt đầu đọc trước vào ring. Trả về null nếu không có file. */
+    public static MusicStream open(String path, boolean loop) {
+        if (MusicStream.class.getResource(path) == null) {
+            System.err.println("Error loading: " + path);
+            return null;
+        }
+        MusicStream s = new MusicStream(path, loop);
+        Thread t = new Thread(s, "music-stream");
+        t.setDaemon(true);
+        t.start();
+        return s;
+    }
+
+    public void close() {
+        closed = true;
+    }
+
+    /** Bài đã hết (không loop) và mixer đã đọc hết ring. */
+    boolean finished() {
+        return ended && read == written;
+    }
+
+    // ===================== THREAD STREAM =====================
+
+    @Override
+    public void run() {
+        byte[] bytes = new byte[READ_FRAMES * 4];
+        short[] pcm = new short[READ_FRAMES * 2];
+        try {
+            do {
+                try (AudioInputStream in = openPcm()) {
+                    int n;
+                    while (!closed && (n = in.readNBytes(bytes, 0, bytes.length)) > 0) {
+                        int frames = n / 4;
+                        for (int i = 0; i < frames * 2; i++) {
+                            pcm[i] = (short) ((bytes[2 * i] & 0xff) | (bytes[2 * i + 1] << 8));
+                        }
+                        push(pcm, frames);
+                    }
+                }
+            } while (loop && !closed);
+        } catch (Exception e) {
+            System.err.println("Error streaming: " + path);
+        }
+        ended = true;
+    }
+
+    private AudioInputStream openPcm() throws Exception {
+        InputStream raw = MusicStream.class.getResourceAsStream(path);
+        AudioInputStream src = AudioSystem.getAudioInputStream(new BufferedInputStream(raw));
+        float rate = src.getFormat().getSampleRate();
+        step = rate / AudioMixer.SAMPLE_RATE;
+        AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, rate, 16, 2, 4, rate, false);
+        return AudioSystem.getAudioInputStream(pcm, src);
+    }
+
+    // Resample (nếu cần) rồi ghi vào ring, chờ khi ring đầy
+    private void push(short[] pcm, int frames) {
+        for (int i = 0; i < frames; i++) {
+            short l = pcm[2 * i], r = pcm[2 * i + 1];
+            if (step == 1.0) {
+                put(l, r);
+                continue;
+            }
+            if (!havePrev) { prevL = l; prevR = r; havePrev = true; continue; }
+            // Phát các frame đầu ra nằm giữa prev và frame hiện tại
+            while (frac < 1.0) {
+                put((short) (prevL + (l - prevL) * frac), (short) (prevR + (r - prevR) * frac));
+                frac += step;
+            }
+            frac -= 1.0;
+            prevL = l;
+            prevR = r;
+        }
+    }
+
+    private void put(short l, short r) {
+        long w = written;
+        while (w - read >= RING_FRAMES) {
+            if (closed) return;
+            LockSupport.parkNanos(2_000_000L); // ring đầy: chờ mixer đọc bớt
+        }
+        int i = (int) (w % RING_FRAMES) * 2;
+        ring[i] = l;
+        ring[i + 1] = r;
+        written = w + 1;
+    }
+
+    // ===================== THREAD MIXER =====================
+
+    /**
+     * Cộng tối đa frames frame vào mix, gain tuyến tính từ gainFrom tới gainTo.
+     * @return số frame thực sự có (thiếu = ring cạn, phần còn lại im lặng)
+     */
+    int mixInto(int[] mix, int frames, float gainFrom, float gainTo) {
+        long r = read;
+        int n = (int) Math.min(frames, written - r);
+        float dg = n > 0 ? (gainTo - gainFrom) / frames : 0f;
+        float g = gainFrom;
+        for (int k = 0; k < n; k++) {
+            int i = (int) ((r + k) % RING_FRAMES) * 2;
+            mix[2 * k] += (int) (ring[i] * g);
+            mix[2 * k + 1] += (int) (ring[i + 1] * g);
+            g += dg;
+        }
+        read = r + n;
+        return n;
+    }
+}
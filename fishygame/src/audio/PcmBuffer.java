@@ -0,0 +1,69 @@
+package audio;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+/**
+ * Một hiệu ứng âm thanh đã decode sẵn thành PCM 16-bit stereo, đúng sample rate của mixer.
+ * Decode (và resample nếu file khác rate) đúng một lần lúc load; khi phát chỉ còn đọc mảng.
+ */
+public final class PcmBuffer {
+    public final String name;
+    final short[] samples; // xen kẽ L, R
+    public final int frames;
+
+    PcmBuffer(String name, short[] samples) {
+        this.name = name;
+        this.samples = samples;
+        this.frames = samples.length / 2;
+    }
+
+    /** Đọc WAV trong classpath, đổi về 16-bit stereo sampleRate. Trả về null nếu không có file / lỗi. */
+    public static PcmBuffer load(String path, float sampleRate) {
+        InputStream raw = PcmBuffer.class.getResourceAsStream(path);
+        if (raw == null) return null;
+        try (AudioInputStream src = AudioSystem.getAudioInputStream(new BufferedInputStream(raw))) {
+            AudioFormat in = src.getFormat();
+            // Bước 1: để Java Sound đổi sang PCM signed 16-bit little endian, stereo, giữ rate gốc
+            AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, in.getSampleRate(), 16,
+                    2, 4, in.getSampleRate(), false);
+            AudioInputStream conv = AudioSystem.getAudioInputStream(pcm, src);
+            byte[] bytes = conv.readAllBytes();
+            short[] s = new short[bytes.length / 2];
+            for (int i = 0; i < s.length; i++) {
+                s[i] = (short) ((bytes[2 * i] & 0xff) | (bytes[2 * i + 1] << 8));
+            }
+            // Bước 2: resample tuyến tính về rate của mixer (VD 24000 -> 44100)
+            if (Math.abs(in.getSampleRate() - sampleRate) > 0.5f) s = resample(s, in.getSampleRate(), sampleRate);
+            return new PcmBuffer(path, s);
+        } catch (Exception e) {
+            System.err.println("Error loading: " + path);
+            return null;
+        }
+    }
+
+    private static short[] resample(short[] s, float from, float to) {
+        int inFrames = s.length / 2;
+        int outFrames = (int) ((long) inFrames * to / from);
+        short[] out = new short[outFrames * 2];
+        double step = from / to;
+        for (int i = 0; i < outFrames; i++) {
+            double pos = i * step;
+            int p = (int) pos;
+            double t = pos - p;
+            int q = Math.min(p + 1, inFrames - 1);
+            for (int c = 0; c < 2; c++) {
+                out[2 * i + c] = (short) Math.round(s[2 * p + c] * (1 - t) + s[2 * q + c] * t);
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return "PcmBuffer[" + name + ", frames=" + frames + "]";
+    }
+}
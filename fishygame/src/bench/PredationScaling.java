@@ -0,0 +1,153 @@
+package bench;
+
+import entity.Aquarium;
+import entity.Direction;
+import entity.Enemy;
+import entity.EnemyStore;
+import entity.MonsterType;
+import java.util.ArrayList;
+import java.util.Random;
+import main.World;
+
+/**
+ * Benchmark độ co giãn (scaling) của tick Aquarium theo số lượng cá, từ 100 tới 10k.
+ * Chạy headless. Sau mỗi tick, bể được bơm lại đủ N con (phần này không tính giờ),
+ * nên mọi tick đều đo với đúng N con.
+ *
+ * Chạy hai chế độ:
+ *  - "fixed": thế giới 1280x960 cố định, mật độ tăng theo N (số cặp chạm nhau thật sự
+ *    tăng ~N², lưới không tránh được phần này).
+ *  - "density": thế giới nở ra theo N để mật độ giữ nguyên như 100 con / 1280x960,
+ *    cho thấy chi phí của riêng phần tìm cặp.
+ * Cột "soa" là cùng tick đó nhưng chạy trên EnemyStore (struct-of-arrays).
+ * So sánh thêm với vòng lặp O(n²) cũ (chỉ chạy tới 2500 con cho đỡ lâu).
+ *
+ * Cách chạy: java -cp <classes> bench.PredationScaling
+ */
+public class PredationScaling {
+    static final int[] COUNTS = {100, 250, 500, 1000, 2500, 5000, 10000};
+    static final int NAIVE_LIMIT = 2500;
+    static final int BASE_COUNT = 100;
+    static final int BASE_WIDTH = 1280, BASE_HEIGHT = 960;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        World world = new World(780, 640, true);
+        Random rand = new Random(42);
+
+        for (String mode : new String[] {"fixed", "density"}) {
+            System.out.println("== " + mode + " ==");
+            System.out.printf("%8s %12s %12s %15s %12s %15s %12s%n", "fish", "world",
+                    "tick(us)", "predation(us)", "soa(us)", "soa-pred(us)", "naive(us)");
+            for (int n : COUNTS) {
+                if (mode.equals("density")) {
+                    double s = Math.sqrt((double) n / BASE_COUNT);
+                    world.worldWidth = (int) (BASE_WIDTH * s);
+                    world.worldHeight = (int) (BASE_HEIGHT * s);
+                } else {
+                    world.worldWidth = BASE_WIDTH;
+                    world.worldHeight = BASE_HEIGHT;
+                }
+
+                // Full tick (spawn + AI + predation)
+                double tickUs = measure(world, rand, n, true);
+                // Chỉ riêng phần va chạm cá-cá
+                double predUs = measure(world, rand, n, false);
+                world.aquarium.useStore = true;
+                double soaTickUs = measure(world, rand, n, true);
+                double soaPredUs = measure(world, rand, n, false);
+                world.aquarium.useStore = false;
+                String naive = "-";
+                if (n <= NAIVE_LIMIT) {
+                    naive = String.format("%.1f", measureNaive(world, rand, n));
+                }
+                world.aquarium.reset();
+                System.out.printf("%8d %12s %12.1f %15.1f %12.1f %15.1f %12s%n", n,
+                        world.worldWidth + "x" + world.worldHeight, tickUs, predUs, soaTickUs, soaPredUs, naive);
+            }
+        }
+    }
+
+    // Số tick đo tỉ lệ nghịch với N để mỗi dòng chạy trong thời gian vừa phải
+    static int ticksFor(int n) {
+        return Math.max(20, Math.min(300, 100_000 / n));
+    }
+
+    static double measure(World world, Random rand, int n, boolean fullTick) {
+        Aquarium aquarium = world.aquarium;
+        aquarium.reset();
+        int ticks = ticksFor(n);
+        long total = 0;
+        for (int t = 0; t < ticks * 2; t++) {
+            refill(world, rand, n);
+            long start = System.nanoTime();
+            if (fullTick) aquarium.update();
+            else if (aquarium.useStore) aquarium.store.checkPredatorCollision();
+            else aquarium.checkPredatorCollision();
+            aquarium.flushRemovals();
+            long elapsed = System.nanoTime() - start;
+            if (t >= ticks) total += elapsed; // nửa đầu để warm-up
+        }
+        return total / 1000.0 / ticks;
+    }
+
+    static double measureNaive(World world, Random rand, int n) {
+        Aquarium aquarium = world.aquarium;
+        aquarium.reset();
+        int ticks = Math.max(5, ticksFor(n) / 4);
+        long total = 0;
+        for (int t = 0; t < ticks * 2; t++) {
+            refill(world, rand, n);
+            long start = System.nanoTime();
+            naivePredation(aquarium.entities);
+            long elapsed = System.nanoTime() - start;
+            if (t >= ticks) total += elapsed;
+        }
+        return total / 1000.0 / ticks;
+    }
+
+    /** Bơm cá vào vị trí ngẫu nhiên trong thế giới cho đủ n con (benchmark JMH dùng lại). */
+    public static void refill(World world, Random rand, int n) {
+        ArrayList<MonsterType> types = world.currentLevel.monsterTypes;
+        if (world.aquarium.useStore) {
+            EnemyStore store = world.aquarium.store;
+            while (store.count < n) {
+                MonsterType t = types.get(rand.nextInt(types.size()));
+                store.add(t, rand.nextInt(world.worldWidth - t.width), rand.nextInt(world.worldHeight - t.height),
+                        rand.nextBoolean(), 0);
+            }
+            return;
+        }
+        ArrayList<Enemy> entities = world.aquarium.entities;
+        while (entities.size() < n) {
+            Enemy e = world.aquarium.acquire(types.get(rand.nextInt(types.size())));
+            e.x = rand.nextInt(world.worldWidth - e.width);
+            e.y = rand.nextInt(world.worldHeight - e.height);
+            e.direction = Direction.of(rand.nextBoolean());
+            e.updateHitbox();
+            e.savePrevious();
+            world.aquarium.add(e);
+        }
+    }
+
+    // Thuật toán cũ: duyệt hết mọi cặp, remove ngay trong vòng lặp
+    static void naivePredation(ArrayList<Enemy> entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            Enemy predator = entities.get(i);
+            for (int j = 0; j < entities.size(); j++) {
+                if (i == j) continue;
+                Enemy prey = entities.get(j);
+                if (predator.solidArea.intersects(prey.solidArea)) {
+                    int sizeA = predator.width * predator.height;
+                    int sizeB = prey.width * prey.height;
+                    if (sizeA > sizeB * 1.2) {
+                        predator.startEating();
+                        entities.remove(j);
+                        if (j < i) i--;
+                        j--;
+                    }
+                }
+            }
+        }
+    }
+}
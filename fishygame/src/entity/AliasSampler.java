@@ -0,0 +1,50 @@
+package entity;
+
+/**
+ * Chọn ngẫu nhiên theo trọng số bằng phương pháp alias (Vose): dựng bảng một lần,
+ * mỗi lần chọn chỉ tốn một nextInt + một nextDouble, O(1) bất kể bao nhiêu loài.
+ */
+public final class AliasSampler {
+    private final double[] prob;
+    private final int[] alias;
+
+    public AliasSampler(double[] weights) {
+        int n = weights.length;
+        if (n == 0) throw new IllegalArgumentException("No weights");
+        double total = 0;
+        for (double w : weights) {
+            if (w < 0) throw new IllegalArgumentException("Negative weight: " + w);
+            total += w;
+        }
+        if (total <= 0) throw new IllegalArgumentException("All weights are zero");
+
+        prob = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n], large = new int[n];
+        int ns = 0, nl = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) small[ns++] = i; else large[nl++] = i;
+        }
+        while (ns > 0 && nl > 0) {
+            int s = small[--ns], l = large[--nl];
+            prob[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0) small[ns++] = l; else large[nl++] = l;
+        }
+        // Phần còn lại (sai số làm tròn) luôn chọn chính nó
+        while (nl > 0) { int l = large[--nl]; prob[l] = 1.0; alias[l] = l; }
+        while (ns > 0) { int s = small[--ns]; prob[s] = 1.0; alias[s] = s; }
+    }
+
+    public int size() {
+        return prob.length;
+    }
+
+    public int sample(Rng rand) {
+        int i = rand.nextInt(prob.length);
+        return rand.nextDouble() < prob[i] ? i : alias[i];
+    }
+}
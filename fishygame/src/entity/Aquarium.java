@@ -1,163 +1,300 @@
 package entity;
 
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.util.ArrayList;
-import java.util.Random;
-import main.GamePanel;
+import java.util.HashMap;
+import main.World;
+import perf.Phase;
+import perf.PredationEvent;
+import perf.SpawnEvent;
 
 public class Aquarium {
-    GamePanel gp;
-    Random rand = new Random();
+    World world;
+    final Rng rand; // luồng spawn của World (dùng chung với director)
     
     // Danh sách chứa Enemy
     public ArrayList<Enemy> entities = new ArrayList<>();
+
+    // Kho thay thế dạng struct-of-arrays (bật bằng -Dfishy.soa=true)
+    public final EnemyStore store;
+    public boolean useStore;
     
+    // Nhịp spawn, budget số cá, dọn cá xa / sống lâu
+    public final SpawnDirector director;
+
     // Các biến đếm nội bộ (Internal State)
-    private int spawnCounter = 0;
     private int moveTick = 0; 
     final int SLOW_DOWN_FACTOR = 2; 
 
-    public Aquarium(GamePanel gp) {
-        this.gp = gp;
+    // Lưới không gian cho va chạm cá-cá
+    private final SpatialGrid grid = new SpatialGrid();
+
+    // Handle ổn định cho từng Enemy + hàng đợi xóa, flush một lần cuối tick
+    public final HandleTable handles = new HandleTable();
+    private final ArrayList<Enemy> removeQueue = new ArrayList<>();
+    public long removed = 0; // tổng số con đã xóa (bị ăn / bị dọn), cho overlay hiệu năng
+
+    // Pool Enemy theo loài, riêng của bể này (MonsterType là flyweight dùng chung giữa các World)
+    private final HashMap<MonsterType, EnemyPool> pools = new HashMap<>();
+
+    public Aquarium(World world) {
+        this.world = world;
+        this.rand = world.random.spawn;
+        this.store = new EnemyStore(world);
+        this.useStore = Boolean.getBoolean("fishy.soa");
+        this.director = new SpawnDirector(world, rand);
+    }
+
+    /** Số cá hiện có, bất kể đang dùng kho nào. */
+    public int size() {
+        return useStore ? store.count : entities.size();
+    }
+
+    /** Băm vị trí / kích thước mọi con cá (cho World.stateHash). */
+    public int stateHash() {
+        int h = size();
+        if (useStore) {
+            for (int i = 0; i < store.count; i++) {
+                h = 31 * h + store.x[i];
+                h = 31 * h + store.y[i];
+                h = 31 * h + store.width[i];
+            }
+        } else {
+            for (int i = 0; i < entities.size(); i++) {
+                Enemy e = entities.get(i);
+                h = 31 * h + e.x;
+                h = 31 * h + e.y;
+                h = 31 * h + e.width;
+            }
+        }
+        return h;
     }
 
     // >> PHƯƠNG THỨC MỚI: Dùng để Reset game sạch sẽ
     public void reset() {
+        for (int i = 0; i < entities.size(); i++) release(entities.get(i));
         entities.clear();
-        spawnCounter = 0;
+        removeQueue.clear();
+        handles.clear();
+        store.clear();
+        director.reset();
         moveTick = 0;
     }
 
     public void spawnEntity() {
         // Lấy danh sách quái từ Level hiện tại
-        ArrayList<MonsterType> types = gp.currentLevel.monsterTypes;
+        ArrayList<MonsterType> types = world.currentLevel.monsterTypes;
         if (types == null || types.isEmpty()) return;
 
-        // --- Logic Spawn có trọng số (Weighted Random) ---
-        int index = 0;
-        int dice = rand.nextInt(100);
-        
-        if (gp.currentLevel.levelNum == 1){
-               if (types.size() >= 3) {
-                    if (gp.score < 500) {
-                        // Tỉ lệ: 70% con 0, 28% con 1, 2% con 2
-                        if (dice < 70) index = 0;      
-                        else if (dice < 98) index = 1; 
-                        else index = 2;                
-                    } else {
-                        // Tỉ lệ: 50% con 0, 35% con 1, 15% con 2
-                        if (dice < 50) index = 0;      
-                        else if (dice < 85) index = 1; 
-                        else index = 2;                
-                    }
-                }
-            
-        } else if (gp.currentLevel.levelNum == 2) {
-            if (types.size() >= 3) {
-                if(gp.score < 2500){
-                    if (dice < 70) index = 0;      // 50% Barracuda (Con thứ 3 trong danh sách)
-                    else if (dice < 98) index = 1; // 30% Parrotfish (Con thứ 1)
-                    else index = 2;  
-                } else if (gp.score < 3000){
-                    if(dice < 50) index = 0;
-                    else if(dice < 70) index = 1;
-                    else index = 2;
-                } else {
-                    if(dice < 60) index = 0;
-                    else if(dice < 85) index = 1;
-                    else index = 2;
-                }
-               
-            }
-        } else if(gp.currentLevel.levelNum == 3){
-            if (types.size() >= 3) {
-                if(gp.score < 5500){
-                    if (dice < 70) index = 0;      // 50% Barracuda (Con thứ 3 trong danh sách)
-                    else if (dice < 98) index = 1; // 30% Parrotfish (Con thứ 1)
-                    else index = 2;  
-                } else if (gp.score < 6300){
-                    if(dice < 50) index = 0;
-                    else if(dice < 70) index = 1;
-                    else index = 2;
-                } else {
-                    if(dice < 60) index = 0;
-                    else  if(dice < 85) index = 1;
-                    else index = 2;
-                }
-               
-            }
+        // --- Spawn có trọng số: alias sampler của band điểm hiện tại (levels.txt) ---
+        int index = world.currentLevel.def.spawnSampler(world.score).sample(rand);
+
+        MonsterType selectedType = types.get(index);
+
+        // Mép vào và cao độ do director chọn (ưu tiên gần camera)
+        director.place(selectedType);
+        boolean isRight = director.spawnRight;
+
+        SpawnEvent ev = new SpawnEvent(); // JFR, không ghi thì JIT bỏ luôn
+        if (ev.shouldCommit()) {
+            ev.species = selectedType.name;
+            ev.x = director.spawnX;
+            ev.y = director.spawnY;
+            ev.swimsRight = isRight;
+            ev.population = size();
+            ev.commit();
         }
-            
-            MonsterType selectedType = types.get(index);
-
-            // Tạo Enemy từ MonsterType đã chọn
-            Enemy monster = selectedType.createMonster(gp);
-
-            // Random vị trí & hướng
-            boolean isRight = rand.nextBoolean();
-            monster.direction = isRight ? "right" : "left";
-            monster.y = rand.nextInt(gp.worldHeight - monster.height);
-            
-            if (isRight) monster.x = -monster.width;
-            else monster.x = gp.worldWidth;
-
-            monster.dy = rand.nextInt(3) - 1; 
-            monster.actionLockCounter = 0;
-            
-            entities.add(monster);
+
+        if (useStore) {
+            int i = store.add(selectedType, director.spawnX, director.spawnY, isRight, rand.nextInt(3) - 1);
+            store.spawnTick[i] = world.tickCount;
+            return;
         }
-    
+
+        // Lấy Enemy từ pool của bể cho loài đã chọn
+        Enemy monster = acquire(selectedType);
+
+        monster.direction = Direction.of(isRight);
+        monster.x = director.spawnX;
+        monster.y = director.spawnY;
+        monster.spawnTick = world.tickCount;
+
+        monster.dy = rand.nextInt(3) - 1;
+        monster.actionLockCounter = 0;
+        monster.savePrevious();
+        monster.updateHitbox();
+
+        add(monster);
+    }
 
     public void update() {
-        spawnCounter++;
-        if (spawnCounter > 30) { 
-            spawnEntity();
-            spawnCounter = 0;
-        }
+        if (director.shouldSpawn(size())) spawnEntity();
         moveTick++;
         boolean allowMove = (moveTick % SLOW_DOWN_FACTOR == 0);
 
+        if (useStore) {
+            store.update(allowMove, director);
+            if (moveTick > 1000) moveTick = 0;
+            long t = world.profiler.begin();
+            store.checkPredatorCollision();
+            world.profiler.end(Phase.PREDATION, t);
+            return;
+        }
+
+        boolean despawnCheck = director.despawnCheckDue();
         for (int i = 0; i < entities.size(); i++) {
             Enemy e = entities.get(i);
             if (e != null) {
                 // Update AI & Position
                 e.update(allowMove);
                 
-                // Garbage Collection
-                if (e.x < -200 || e.x > gp.worldWidth + 200) {
-                    entities.remove(i);
-                    i--; 
+                // Garbage Collection (xóa thật ở flushRemovals cuối tick):
+                // ra khỏi thế giới, hoặc director thấy quá xa camera / sống quá lâu
+                if (e.x < -200 || e.x > world.worldWidth + 200
+                        || (despawnCheck && director.shouldDespawn(e.x, e.y, e.width, e.height, e.spawnTick))) {
+                    queueRemove(e);
                 }
             }
         }
         
         if (moveTick > 1000) moveTick = 0;
+        long t = world.profiler.begin();
         checkPredatorCollision();
+        world.profiler.end(Phase.PREDATION, t);
     }
 
-    private void checkPredatorCollision() {
-        for (int i = 0; i < entities.size(); i++) {
+    /**
+     * Cá lớn ăn cá bé. Dùng SpatialGrid nên mỗi predator chỉ xét con mồi nằm chung ô
+     * với nó thay vì cả danh sách. Con bị ăn chỉ được đưa vào hàng đợi xóa
+     * (không gọi ArrayList.remove trong lúc đang duyệt).
+     */
+    public void checkPredatorCollision() {
+        int n = entities.size();
+        if (n < 2) return;
+        grid.rebuild(entities, world.worldWidth, world.worldHeight);
+        int cols = grid.cols();
+
+        for (int i = 0; i < n; i++) {
             Enemy predator = entities.get(i);
-            for (int j = 0; j < entities.size(); j++) {
-                if (i == j) continue; 
-                Enemy prey = entities.get(j);
-                
-                if (predator.solidArea.intersects(prey.solidArea)) {
-                    int sizeA = predator.width * predator.height;
-                    int sizeB = prey.width * prey.height;
-
-                    if (sizeA > sizeB * 1.2) {
-                        predator.startEating();
-                        entities.remove(j);
-                        if (j < i) i--; 
-                        j--; 
+            if (predator.pendingRemove) continue; // đã bị ăn / ra khỏi thế giới thì không đi săn nữa
+            Rectangle a = predator.solidArea;
+            int sizeA = predator.width * predator.height;
+
+            int x0 = grid.cellX(a.x), x1 = grid.cellX(a.x + a.width - 1);
+            int y0 = grid.cellY(a.y), y1 = grid.cellY(a.y + a.height - 1);
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int cx = x0; cx <= x1; cx++) {
+                    int c = cy * cols + cx;
+                    for (int k = grid.cellStart(c), end = grid.cellEnd(c); k < end; k++) {
+                        int j = grid.item(k);
+                        if (j == i) continue;
+                        Enemy prey = entities.get(j);
+                        if (prey.pendingRemove) continue;
+                        Rectangle b = prey.solidArea;
+
+                        if (a.intersects(b) && grid.ownsPair(cx, cy, a, b)) {
+                            int sizeB = prey.width * prey.height;
+                            if (EnemyRules.canEat(sizeA, sizeB)) {
+                                predator.startEating();
+                                queueRemove(prey);
+                                PredationEvent ev = new PredationEvent();
+                                if (ev.shouldCommit()) {
+                                    ev.predator = predator.type.name;
+                                    ev.prey = prey.type.name;
+                                    ev.x = prey.x;
+                                    ev.y = prey.y;
+                                    ev.commit();
+                                }
+                            }
+                        }
                     }
                 }
             }
         }
     }
 
+    // ===================== ADD / REMOVE =====================
+
+    /** Thêm Enemy vào bể và cấp handle cho nó. */
+    public long add(Enemy e) {
+        e.pendingRemove = false;
+        e.handle = handles.allocate(entities.size());
+        entities.add(e);
+        return e.handle;
+    }
+
+    /**
+     * Đánh dấu Enemy cần xóa. Nó vẫn nằm trong danh sách (chỉ số không đổi) cho tới
+     * flushRemovals() ở cuối tick, nên các vòng lặp đang chạy không bị lệch chỉ số.
+     */
+    public void queueRemove(Enemy e) {
+        if (e.pendingRemove) return;
+        e.pendingRemove = true;
+        removeQueue.add(e);
+    }
+
+    /** Xóa mọi con trong hàng đợi bằng swap-remove (O(1) mỗi con) và trả về pool. */
+    public void flushRemovals() {
+        for (int k = 0; k < removeQueue.size(); k++) {
+            Enemy e = removeQueue.get(k);
+            int s = handles.slotOf(e.handle);
+            if (s < 0) continue;
+            Enemy last = entities.remove(entities.size() - 1);
+            if (last != e) {
+                entities.set(s, last);
+                handles.move(last.handle, s);
+            }
+            handles.free(e.handle);
+            e.handle = HandleTable.NONE;
+            release(e);
+            removed++;
+        }
+        removeQueue.clear();
+        removed += store.flushRemovals();
+    }
+
+    /** Enemy ứng với handle, hoặc null nếu con đó đã bị xóa. */
+    public Enemy resolve(long handle) {
+        int s = handles.slotOf(handle);
+        return s < 0 ? null : entities.get(s);
+    }
+
+    /** Pool của loài type trong bể này, tạo ở lần đầu dùng. */
+    public EnemyPool pool(MonsterType type) {
+        EnemyPool p = pools.get(type);
+        if (p == null) {
+            p = new EnemyPool(type);
+            pools.put(type, p);
+        }
+        return p;
+    }
+
+    /** Lấy một Enemy loài type từ pool (tạo mới nếu pool rỗng). */
+    public Enemy acquire(MonsterType type) {
+        return pool(type).acquire(world);
+    }
+
+    /** Trả Enemy về pool của loài nó (Enemy tạo ngoài pool thì bỏ qua). */
+    public void release(Enemy e) {
+        if (e.type != null) pool(e.type).release(e);
+    }
+
+    public void savePrevious() {
+        if (useStore) {
+            store.savePrevious();
+            return;
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            entities.get(i).savePrevious();
+        }
+    }
+
     public void draw(Graphics2D g2) {
+        if (useStore) {
+            store.draw(g2);
+            return;
+        }
         for (Enemy e : entities) {
             e.draw(g2);
         }
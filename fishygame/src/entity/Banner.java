@@ -1,13 +1,15 @@
 package entity;
 
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
-import main.GamePanel;
+import main.World;
+import render.GlyphAtlas;
 
 public class Banner {
-    GamePanel gp;
-    private BufferedImage[] images;
+    World world;
+    private String text = "";
+    private Rectangle[] glyphs; // vị trí từng chữ trong GlyphAtlas (null = dấu cách / không có ảnh)
     private double[] letterY;
     private double targetY;
     private double riseSpeed = 8.0; 
@@ -17,30 +19,30 @@ public class Banner {
     private int maxVisibleTime = -1; 
     private int tick = 0; 
     
-    private final int IMG_WIDTH = 80;
-    private final int IMG_HEIGHT = 80;
+    private final int IMG_WIDTH = GlyphAtlas.GLYPH_SIZE;
     // >> SỬA: Tăng khoảng cách giữa các chữ (10 -> 20)
     private final int SPACING = 20; 
     private final int LETTER_DELAY = 5; 
 
-    public Banner(GamePanel gp) {
-        this.gp = gp;
+    public Banner(World world) {
+        this.world = world;
     }
 
     public void show(String text, int duration) {
         this.maxVisibleTime = duration;
         this.visibleCounter = 0;
         this.tick = 0;
-        loadImages(text);
+        this.text = text;
+        // Headless: không cần chữ, nhưng vẫn chạy hiệu ứng để giữ đúng thời gian banner
+        if (world.headless) glyphs = null;
+        else layoutGlyphs(text);
         
         // Vị trí đích: 1/3 màn hình
-        this.targetY = gp.screenHeight / 3.0;
+        this.targetY = world.screenHeight / 3.0;
         
-        if (images != null) {
-            letterY = new double[images.length];
-            for (int i = 0; i < letterY.length; i++) {
-                letterY[i] = gp.screenHeight + 100; 
-            }
+        letterY = new double[text.length()];
+        for (int i = 0; i < letterY.length; i++) {
+            letterY[i] = world.screenHeight + 100; 
         }
         this.active = true;
     }
@@ -49,22 +51,18 @@ public class Banner {
         return active;
     }
 
-    private void loadImages(String text) {
-        text = text.toUpperCase();
-        int len = text.length();
-        images = new BufferedImage[len];
-        try {
-            for (int i = 0; i < len; i++) {
-                char c = text.charAt(i);
-                if (c == ' ') { images[i] = null; continue; }
-                
-                // Hỗ trợ cả chữ cái và số
-                String path = "/res/text/" + c + ".png";
-                if (getClass().getResourceAsStream(path) != null) {
-                    images[i] = ImageIO.read(getClass().getResourceAsStream(path));
-                }
-            }
-        } catch (Exception e) { e.printStackTrace(); }
+    // Chỉ tra bảng glyph, không đọc file (atlas đã load sẵn)
+    private void layoutGlyphs(String text) {
+        GlyphAtlas atlas = GlyphAtlas.get();
+        glyphs = new Rectangle[text.length()];
+        for (int i = 0; i < glyphs.length; i++) {
+            glyphs[i] = atlas.glyph(text.charAt(i));
+        }
+    }
+
+    /** Cả dòng chữ của banner ghép sẵn thành một ảnh (dùng khi cần vẽ tĩnh). */
+    public BufferedImage composeImage() {
+        return GlyphAtlas.get().compose(text, SPACING);
     }
 
     public void update() {
@@ -97,14 +95,15 @@ public class Banner {
     }
 
     public void draw(Graphics2D g2) {
-        if (!active || images == null) return;
-        int totalWidth = (images.length * IMG_WIDTH) + ((images.length - 1) * SPACING);
-        int startX = (gp.screenWidth - totalWidth) / 2;
-        for (int i = 0; i < images.length; i++) {
+        if (!active || glyphs == null) return;
+        GlyphAtlas atlas = GlyphAtlas.get();
+        int totalWidth = (glyphs.length * IMG_WIDTH) + ((glyphs.length - 1) * SPACING);
+        int startX = (world.screenWidth - totalWidth) / 2;
+        for (int i = 0; i < glyphs.length; i++) {
             int drawX = startX + i * (IMG_WIDTH + SPACING);
             int drawY = (int) letterY[i];
-            if (images[i] != null) {
-                g2.drawImage(images[i], drawX, drawY, IMG_WIDTH, IMG_HEIGHT, null);
+            if (glyphs[i] != null) {
+                atlas.draw(g2, glyphs[i], drawX, drawY);
             }
         }
     }
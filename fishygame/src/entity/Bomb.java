@@ -4,18 +4,18 @@ import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import javax.imageio.ImageIO;
-import main.GamePanel;
+import main.World;
 
 public class Bomb extends Entity {
-    GamePanel gp;
+    World world;
     public BufferedImage mineImg;
     public BufferedImage[] explosionFrames = new BufferedImage[5]; // Theo ảnh bạn gửi có 5 frames nổ
     public boolean exploded = false;
     public int explosionCounter = 0;
     public int explosionIndex = 0;
 
-    public Bomb(GamePanel gp, int x, int y) {
-        this.gp = gp;
+    public Bomb(World world, int x, int y) {
+        this.world = world;
         this.x = x;
         this.y = y;
         this.width = 40; // Kích thước quả bom
@@ -46,13 +46,13 @@ public class Bomb extends Entity {
     public void explode() {
         if (!exploded) {
             exploded = true;
-            gp.playSE(4); // Âm thanh nổ
+            world.playSE(4); // Âm thanh nổ
         }
     }
 
     public void draw(Graphics2D g2) {
-        int screenX = x - gp.cameraX;
-        int screenY = y - gp.cameraY;
+        int screenX = x - world.cameraX;
+        int screenY = y - world.cameraY;
 
         if (!exploded) {
             g2.drawImage(mineImg, screenX, screenY, width, height, null);
@@ -0,0 +1,26 @@
+package entity;
+
+/** Hướng bơi (thay cho chuỗi "left"/"right"). code dùng cho mảng byte của EnemyStore. */
+public enum Direction {
+    LEFT(0, -1), RIGHT(1, 1);
+
+    public final byte code;
+    public final int sign; // -1 bơi sang trái, +1 bơi sang phải
+
+    Direction(int code, int sign) {
+        this.code = (byte) code;
+        this.sign = sign;
+    }
+
+    public Direction opposite() {
+        return this == LEFT ? RIGHT : LEFT;
+    }
+
+    public static Direction of(byte code) {
+        return code == 0 ? LEFT : RIGHT;
+    }
+
+    public static Direction of(boolean right) {
+        return right ? RIGHT : LEFT;
+    }
+}
@@ -2,15 +2,13 @@ package entity;
 
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import java.awt.geom.AffineTransform;
-import java.awt.image.BufferedImage;
-import java.util.Random;
-import main.GamePanel;
+import main.World;
 
 public class Enemy extends Entity {
     
-    GamePanel gp;
-    Random rand = new Random();
+    World world;
+    // Luồng AI riêng của con này, EnemyPool seed lại mỗi lần lấy ra (WorldRandom.entitySeed)
+    final Rng rand = new Rng(0);
     
     // AI Variables (Chuyển từ Entity sang đây)
     public int dy; 
@@ -18,13 +16,36 @@ public class Enemy extends Entity {
     
     public String name = "";
 
-    public Enemy(GamePanel gp) {
-        this.gp = gp;
+    // Pool: loài sinh ra con này, và cờ đang nằm trong pool hay không
+    public MonsterType type;
+    boolean inPool = false;
+
+    // Handle ổn định do Aquarium cấp; pendingRemove = đang chờ xóa ở cuối tick
+    public long handle = HandleTable.NONE;
+    public boolean pendingRemove = false;
+    // Tick lúc spawn, để SpawnDirector dọn con sống quá lâu
+    public long spawnTick = 0;
+
+    public Enemy(World world) {
+        this.world = world;
         // Ensure hitbox is always initialized to a safe default.
         // Specific monster types will overwrite this after creation.
         this.solidArea = new Rectangle(0, 0, this.width, this.height);
     }
 
+    /** Đưa con cá về trạng thái như mới tạo (dùng khi lấy lại từ pool). */
+    void resetState() {
+        state = EntityState.SWIM;
+        direction = Direction.LEFT;
+        spriteNum = 0;
+        spriteCounter = 0;
+        dy = 0;
+        actionLockCounter = 0;
+        x = y = prevX = prevY = 0;
+        pendingRemove = false;
+        solidArea.setBounds(0, 0, width, height);
+    }
+
     /**
      * Hàm update xử lý toàn bộ logic hành vi của Enemy
      * @param allowMove: Biến này nhận từ Aquarium (để xử lý Slow Motion)
@@ -34,7 +55,7 @@ public class Enemy extends Entity {
         // 1. LOGIC DI CHUYỂN & AI (Chỉ chạy khi được phép)
         if (allowMove) {
             // Nếu đang quay đầu (Turn) thì đứng yên, không di chuyển vị trí
-            if (!state.equals("turn")) {
+            if (state != EntityState.TURN) {
                 updateAI();
                 updatePosition();
             }
@@ -42,162 +63,106 @@ public class Enemy extends Entity {
         
         // 2. LOGIC ANIMATION (Chạy liên tục mỗi frame)
         updateAnimation();
+        updateHitbox();
     }
 
+    /** Đặt solidArea = sprite thu mỗi cạnh EnemyRules.hitPad, theo vị trí hiện tại. */
+    public void updateHitbox() {
+        int padX = EnemyRules.hitPad(width), padY = EnemyRules.hitPad(height);
+        solidArea.setBounds(x + padX, y + padY, width - 2 * padX, height - 2 * padY);
+    }
+
+    // Luật AI / di chuyển / animation ở EnemyRules, dùng chung với EnemyStore
     private void updateAI() {
-        // Nếu là Level 2 trở lên VÀ là cá barracuda thì dùng logic đuổi
-        if (gp.currentLevel.levelNum >= 2 && "Anglerfish".equals(this.name)) {
+        // Loài hunter (levels.txt) đuổi player từ level 2, còn lại bơi bình thường
+        if (EnemyRules.hunts(type != null && type.hunter, world.currentLevel.levelNum)) {
             huntPlayer();
         } else {
-            // Nếu không phải barracuda hoặc không phải level 2, bơi bình thường
             normalSwimAI();
         }
     }
-    // Tách logic bơi ngẫu nhiên ra hàm riêng
+
+    // Bơi ngẫu nhiên: thỉnh thoảng đổi hướng dọc, hiếm khi tự quay đầu
     private void normalSwimAI() {
         actionLockCounter++;
-        int changeTime = 30 + rand.nextInt(30);
-
-        if (actionLockCounter >= changeTime) {
-            dy = rand.nextInt(3) - 1; 
-            
-            if (rand.nextInt(100) < 20) {
-                if (dy > 0) dy = 2; else if (dy < 0) dy = -2;
-            }
-            
-            if (rand.nextInt(100) < 2) {
+        if (actionLockCounter >= EnemyRules.changeTime(rand.nextInt(EnemyRules.CHANGE_SPREAD))) {
+            dy = EnemyRules.swimDy(rand.nextInt(3) - 1, rand.nextInt(100));
+            if (EnemyRules.randomTurn(rand.nextInt(100))) {
                 startTurning();
             }
             actionLockCounter = 0;
         }
     }
-    
 
-        private void huntPlayer() {
-        double distance = Math.sqrt(Math.pow(gp.player.x - this.x, 2) + Math.pow(gp.player.y - this.y, 2));
-
-        if (distance < 250) {
-            
-            if (state.equals("swim")) { 
-                if (gp.player.x < this.x && direction.equals("right")) {
-                    startTurning(); 
-                } else if (gp.player.x > this.x && direction.equals("left")) {
-                    startTurning();
-                }
+    private void huntPlayer() {
+        Player p = world.player;
+        if (EnemyRules.inHuntRange(p.x - x, p.y - y)) {
+            if (state == EntityState.SWIM && EnemyRules.shouldTurnToward(p.x, x, direction == Direction.RIGHT)) {
+                startTurning();
             }
-            
             // Tăng tốc nhẹ
-            if (direction.equals("left")) x -= 2 ; 
-            else x += 1;
-
-            if (gp.player.y > this.y) dy = 1;
-            else if (gp.player.y < this.y) dy = -1;
+            x += EnemyRules.huntBoost(direction == Direction.RIGHT);
+            dy = EnemyRules.huntDy(p.y, y, dy);
         } else {
             // QUAN TRỌNG: Gọi hàm bơi bình thường, KHÔNG gọi updateAI()
             normalSwimAI();
         }
     }
 
-
     private void updatePosition() {
         // Di chuyển ngang
-        if (direction.equals("left")) x -= speed;
-        else x += speed;
+        x += direction.sign * speed;
 
-        // Di chuyển dọc
+        // Di chuyển dọc, chạm đáy / mặt nước thì bật lại
         y += dy;
+        int maxY = world.worldHeight - height;
+        dy = EnemyRules.bounceDy(y, maxY, dy);
+        y = EnemyRules.clampY(y, maxY);
 
-        // Boundary Check (World)
-        if (y < 0) { y = 0; dy = 1; }
-        if (y > gp.worldHeight - height) { y = gp.worldHeight - height; dy = -1; }
-        
         // Chạm biên ngang -> Quay đầu
-        if (x <= 0 && direction.equals("left")) startTurning();
-        if (x >= gp.worldWidth - width && direction.equals("right")) startTurning();
-
-        // Update Hitbox
-        solidArea.x = x;
-        solidArea.y = y;
+        if (EnemyRules.hitsEdge(x, width, direction == Direction.RIGHT, world.worldWidth)) startTurning();
     }
 
     private void updateAnimation() {
         spriteCounter++;
-        int animSpeed = 5; 
-        
-        if (spriteCounter > animSpeed) {
-            spriteNum++;
-            spriteCounter = 0;
-
-            // --- STATE MACHINE ---
-            if (state.equals("eat")) {
-                if (eatFrames != null && spriteNum >= eatFrames.length) {
-                    state = "swim"; spriteNum = 0;
-                }
-            } 
-            else if (state.equals("turn")) {
-                if (turnFrames != null && spriteNum >= turnFrames.length) {
-                    flipDirection(); 
-                    state = "swim"; spriteNum = 0;
-                }
-            } 
-            else { // swim
-                if (swimFrames != null && spriteNum >= swimFrames.length) {
-                    spriteNum = 0;
-                }
+        if (!EnemyRules.frameDue(spriteCounter)) return;
+        spriteNum++;
+        spriteCounter = 0;
+
+        // --- STATE MACHINE ---
+        if (EnemyRules.animationDone(state.code, spriteNum, swimCount, turnCount, eatCount)) {
+            if (EnemyRules.loops(state.code)) {
+                spriteNum = 0;
+            } else {
+                if (state == EntityState.TURN) flipDirection();
+                enterState(EntityState.SWIM);
             }
         }
     }
 
-
-
     // Hàm vẽ riêng của Enemy
     public void draw(Graphics2D g2) {
-        BufferedImage currentFrame = null;
+        if (atlas == null) return;
+
+        // Tính tọa độ màn hình
+        int screenX = renderX(world.paintAlpha) - world.renderCameraX();
+        int screenY = renderY(world.paintAlpha) - world.renderCameraY();
         
-        // Chọn Frame
-        if (state.equals("eat") && eatFrames != null) {
-            if (spriteNum < eatFrames.length) currentFrame = eatFrames[spriteNum];
-        } 
-        else if (state.equals("turn") && turnFrames != null) {
-            if (spriteNum < turnFrames.length) currentFrame = turnFrames[spriteNum];
-        } 
-        else { // swim
-            if (swimFrames != null && swimFrames.length > 0) {
-                int idx = (spriteNum < swimFrames.length) ? spriteNum : 0;
-                currentFrame = swimFrames[idx];
-            }
+        // Culling (Tối ưu: Không vẽ nếu ngoài màn hình)
+        if (screenX + width < 0 || screenX > world.screenWidth ||
+            screenY + height < 0 || screenY > world.screenHeight) {
+            return;
         }
-        
-        if(currentFrame != null) {
-            AffineTransform oldTransform = g2.getTransform();
-            
-            // Tính tọa độ màn hình
-            int screenX = x - gp.cameraX;
-            int screenY = y - gp.cameraY;
-            
-            // Culling (Tối ưu: Không vẽ nếu ngoài màn hình)
-            if (screenX + width < 0 || screenX > gp.screenWidth ||
-                screenY + height < 0 || screenY > gp.screenHeight) {
-                return;
-            }
-
-            g2.translate(screenX, screenY); 
 
-            // Logic Flip
-            boolean needFlip = false;
-            if (!state.equals("turn")) {
-                if (direction.equals("right")) needFlip = true;
-            } else {
-                if (direction.equals("right")) needFlip = true;
-            }
-
-            if (needFlip) {
-                g2.transform(AffineTransform.getScaleInstance(-1, 1));
-                g2.translate(-width, 0); 
-            }
-            
-            g2.drawImage(currentFrame, 0, 0, width, height, null);
-            g2.setTransform(oldTransform);
+        // Chọn Frame (loài không có animation eat/turn thì dùng frame swim)
+        EntityState anim = state;
+        int frame = spriteNum;
+        if (anim == EntityState.IDLE || atlas.frameCount(anim) == 0) {
+            anim = EntityState.SWIM;
         }
+        if (anim == EntityState.SWIM && frame >= atlas.frameCount(anim)) frame = 0;
+
+        // Lật ngang khi bơi sang phải
+        atlas.draw(g2, anim, frame, screenX, screenY, width, height, direction == Direction.RIGHT);
     }
-}
\ No newline at end of file
+}
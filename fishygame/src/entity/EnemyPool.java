@@ -0,0 +1,64 @@
+package entity;
+
+import main.World;
+
+/**
+ * Pool Enemy cho một MonsterType trong một Aquarium (mỗi World một bộ pool riêng, không
+ * khóa: chỉ game thread của World đó dùng). Spawn lấy con có sẵn trong pool (hit) và reset nó,
+ * chỉ tạo mới khi pool rỗng (miss). Con bị ăn / bơi ra khỏi thế giới được trả lại pool.
+ * Khi đã chạy ổn định, spawn không cấp phát gì (không Enemy, Rectangle, Rng mới).
+ */
+public class EnemyPool {
+    private final MonsterType type;
+    private Enemy[] free = new Enemy[16];
+    private int size = 0;
+
+    // Thống kê
+    public long hits = 0;
+    public long misses = 0;
+    public long released = 0;
+
+    public EnemyPool(MonsterType type) {
+        this.type = type;
+    }
+
+    public Enemy acquire(World world) {
+        Enemy e;
+        if (size > 0) {
+            hits++;
+            e = free[--size];
+            free[size] = null;
+            e.world = world;
+        } else {
+            misses++;
+            e = type.createMonster(world);
+        }
+        e.inPool = false;
+        e.resetState();
+        e.rand.setSeed(world.random.entitySeed()); // con dùng lại bơi như con mới, lặp lại được theo seed
+        return e;
+    }
+
+    public void release(Enemy e) {
+        if (e.inPool) return; // tránh trả hai lần
+        e.inPool = true;
+        released++;
+        if (size == free.length) {
+            Enemy[] bigger = new Enemy[size * 2];
+            System.arraycopy(free, 0, bigger, 0, size);
+            free = bigger;
+        }
+        free[size++] = e;
+    }
+
+    /** Số Enemy đang nằm chờ trong pool. */
+    public int available() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return type.name + " pool: hits=" + hits + " misses=" + misses
+                + " released=" + released + " available=" + size;
+    }
+}
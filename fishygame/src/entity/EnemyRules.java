@@ -0,0 +1,119 @@
+package entity;
+
+/**
+ * Luật hành vi của cá địch, dùng chung cho hai backend: Enemy (object) và EnemyStore
+ * (struct-of-arrays). Hai bên chỉ khác cách lưu trạng thái; mọi con số và điều kiện nằm ở
+ * đây, nên sửa gameplay chỉ cần sửa một chỗ và mã băm replay của hai backend không lệch nhau.
+ *
+ * Hàm nhận / trả primitive, không cấp phát. Các roll ngẫu nhiên do backend rút từ luồng Rng
+ * của con cá (theo đúng thứ tự tham số) rồi truyền vào.
+ */
+public final class EnemyRules {
+    public static final int ANIM_SPEED = 5;            // số tick mỗi frame animation
+    public static final int CHANGE_MIN = 30;           // giữ hướng dọc CHANGE_MIN..+CHANGE_SPREAD-1 tick
+    public static final int CHANGE_SPREAD = 30;
+    public static final int DASH_PERCENT = 20;         // % lần đổi hướng dọc bơi nhanh gấp đôi
+    public static final int RANDOM_TURN_PERCENT = 2;   // % lần đổi hướng dọc tự quay đầu
+    public static final int HUNT_LEVEL = 2;            // loài hunter đuổi player từ level này
+    public static final int HUNT_RANGE = 250;          // px, tính từ góc trên trái
+    public static final double PREY_RATIO = 1.2;       // ăn được con có diện tích sprite nhỏ hơn 1.2 lần
+
+    private EnemyRules() {}
+
+    // ===================== AI =====================
+
+    /** Loài có cờ hunter thì đuổi player từ HUNT_LEVEL trở đi. */
+    public static boolean hunts(boolean hunter, int levelNum) {
+        return hunter && levelNum >= HUNT_LEVEL;
+    }
+
+    /** Số tick giữ hướng dọc, roll trong [0, CHANGE_SPREAD). */
+    public static int changeTime(int roll) {
+        return CHANGE_MIN + roll;
+    }
+
+    /** dy mới khi bơi tự do: v trong {-1, 0, 1}, dashRoll trong [0, 100). */
+    public static int swimDy(int v, int dashRoll) {
+        if (dashRoll < DASH_PERCENT) {
+            if (v > 0) return 2;
+            if (v < 0) return -2;
+        }
+        return v;
+    }
+
+    /** roll trong [0, 100). */
+    public static boolean randomTurn(int roll) {
+        return roll < RANDOM_TURN_PERCENT;
+    }
+
+    public static boolean inHuntRange(int dx, int dy) {
+        return (double) dx * dx + (double) dy * dy < (double) HUNT_RANGE * HUNT_RANGE;
+    }
+
+    /** Con mồi ở sau lưng thì quay lại. */
+    public static boolean shouldTurnToward(int targetX, int x, boolean right) {
+        return right ? targetX < x : targetX > x;
+    }
+
+    /** Quãng đi thêm mỗi tick khi đuổi (cộng vào x, ngoài speed). */
+    public static int huntBoost(boolean right) {
+        return right ? 1 : -2;
+    }
+
+    /** dy khi đuổi: bơi về phía targetY, ngang hàng thì giữ nguyên. */
+    public static int huntDy(int targetY, int y, int dy) {
+        if (targetY > y) return 1;
+        if (targetY < y) return -1;
+        return dy;
+    }
+
+    // ===================== DI CHUYỂN =====================
+
+    /** y sau khi kẹp vào [0, maxY]. */
+    public static int clampY(int y, int maxY) {
+        return Math.min(Math.max(y, 0), maxY);
+    }
+
+    /** dy sau khi chạm đáy / mặt nước thì bật ngược lại (gọi trước clampY, với y chưa kẹp). */
+    public static int bounceDy(int y, int maxY, int dy) {
+        if (Math.max(y, 0) > maxY) return -1;
+        if (y < 0) return 1;
+        return dy;
+    }
+
+    /** Chạm mép ngang theo hướng đang bơi -> phải quay đầu. */
+    public static boolean hitsEdge(int x, int width, boolean right, int worldWidth) {
+        return right ? x >= worldWidth - width : x <= 0;
+    }
+
+    // ===================== ANIMATION =====================
+
+    /** spriteCounter (đã tăng ở tick này) đủ để sang frame kế tiếp chưa. */
+    public static boolean frameDue(int spriteCounter) {
+        return spriteCounter > ANIM_SPEED;
+    }
+
+    /** Animation lặp (SWIM, IDLE) hay chạy một lần rồi về SWIM (EAT, TURN). */
+    public static boolean loops(byte state) {
+        return state != EntityState.EAT.code && state != EntityState.TURN.code;
+    }
+
+    /** frame đã vượt số frame của animation state chưa (lặp thì về 0, một lần thì kết thúc). */
+    public static boolean animationDone(byte state, int frame, int swimCount, int turnCount, int eatCount) {
+        if (state == EntityState.EAT.code) return frame >= eatCount;
+        if (state == EntityState.TURN.code) return frame >= turnCount;
+        return frame >= swimCount;
+    }
+
+    // ===================== VA CHẠM =====================
+
+    /** Lề hitbox mỗi bên: 20% kích thước sprite. */
+    public static int hitPad(int size) {
+        return (int) (size * 0.2);
+    }
+
+    /** Cá có diện tích sprite predatorArea ăn được cá preyArea không. */
+    public static boolean canEat(int predatorArea, int preyArea) {
+        return predatorArea > preyArea * PREY_RATIO;
+    }
+}
@@ -0,0 +1,377 @@
+package entity;
+
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import main.World;
+import perf.PredationEvent;
+
+/**
+ * Kho Enemy dạng struct-of-arrays: mỗi thuộc tính của cá là một mảng primitive,
+ * con thứ i nằm ở chỉ số i của mọi mảng. Không có object Enemy, Rectangle, Random
+ * hay String nào cho từng con -> duyệt tuần tự theo cache, bộ nhớ phẳng,
+ * chịu được hàng chục nghìn con mỗi World.
+ *
+ * Hành vi (AI, di chuyển, animation, ăn nhau) giống hệt Enemy: cả hai cùng gọi luật ở
+ * EnemyRules, chỉ khác cách lưu trữ.
+ * Xóa là swap-remove: con cuối được chuyển vào chỗ trống, O(1). Trong tick chỉ
+ * queueRemove(), flushRemovals() ở cuối tick mới xóa thật, nên chỉ số không đổi giữa tick.
+ * Mỗi con có một handle ổn định (HandleTable) để giữ tham chiếu qua nhiều tick.
+ */
+public class EnemyStore {
+    // --- STATE / DIRECTION CODES (lấy từ EntityState.code / Direction.code) ---
+    public static final byte STATE_SWIM = EntityState.SWIM.code;
+    public static final byte STATE_EAT = EntityState.EAT.code;
+    public static final byte STATE_TURN = EntityState.TURN.code;
+    public static final byte DIR_LEFT = Direction.LEFT.code;
+    public static final byte DIR_RIGHT = Direction.RIGHT.code;
+
+    World world;
+
+    // Bảng loài: typeId -> MonsterType (ảnh, số frame, điểm...)
+    public final ArrayList<MonsterType> types = new ArrayList<>();
+    private boolean[] hunter = new boolean[0]; // loài đuổi theo player (cờ hunter trong levels.txt)
+
+    public int count = 0;
+    public int[] x, y, prevX, prevY;
+    public int[] dy, speed, width, height;
+    public int[] typeId;
+    public int[] spriteNum, spriteCounter, actionLock;
+    public byte[] state, direction;
+    public long[] handle;
+    public long[] spawnTick;
+    public long[] rng; // trạng thái SplitMix64 của luồng AI từng con (Rng.nextInt(rng, i, bound))
+
+    // Handle ổn định + hàng đợi xóa (lưu handle vì chỉ số đổi khi swap-remove)
+    public final HandleTable handles = new HandleTable();
+    private boolean[] pending;
+    private long[] removeQueue = new long[64];
+    private int queued = 0;
+
+    // Dùng cho va chạm cá-cá; hitX..hitH là hitbox tính lại mỗi lần kiểm tra
+    private final SpatialGrid grid = new SpatialGrid();
+    private int[] hitX, hitY, hitW, hitH;
+
+    public EnemyStore(World world) {
+        this(world, 256);
+    }
+
+    public EnemyStore(World world, int capacity) {
+        this.world = world;
+        allocate(Math.max(16, capacity));
+    }
+
+    private void allocate(int cap) {
+        x = grow(x, cap); y = grow(y, cap);
+        prevX = grow(prevX, cap); prevY = grow(prevY, cap);
+        dy = grow(dy, cap); speed = grow(speed, cap);
+        width = grow(width, cap); height = grow(height, cap);
+        typeId = grow(typeId, cap);
+        spriteNum = grow(spriteNum, cap); spriteCounter = grow(spriteCounter, cap);
+        actionLock = grow(actionLock, cap);
+        state = state == null ? new byte[cap] : Arrays.copyOf(state, cap);
+        direction = direction == null ? new byte[cap] : Arrays.copyOf(direction, cap);
+        handle = handle == null ? new long[cap] : Arrays.copyOf(handle, cap);
+        spawnTick = spawnTick == null ? new long[cap] : Arrays.copyOf(spawnTick, cap);
+        rng = rng == null ? new long[cap] : Arrays.copyOf(rng, cap);
+        pending = pending == null ? new boolean[cap] : Arrays.copyOf(pending, cap);
+        hitX = grow(hitX, cap); hitY = grow(hitY, cap);
+        hitW = grow(hitW, cap); hitH = grow(hitH, cap);
+    }
+
+    private static int[] grow(int[] a, int cap) {
+        return a == null ? new int[cap] : Arrays.copyOf(a, cap);
+    }
+
+    public int capacity() {
+        return x.length;
+    }
+
+    public void clear() {
+        count = 0;
+        queued = 0;
+        handles.clear();
+        // Level mới có bảng loài mới
+        types.clear();
+        hunter = new boolean[0];
+    }
+
+    /** typeId của một loài, đăng ký nếu chưa có. */
+    public int typeIndex(MonsterType type) {
+        int id = types.indexOf(type);
+        if (id >= 0) return id;
+        types.add(type);
+        hunter = Arrays.copyOf(hunter, types.size());
+        hunter[types.size() - 1] = type.hunter;
+        return types.size() - 1;
+    }
+
+    /** Thêm một con mới, trả về chỉ số của nó. */
+    public int add(MonsterType type, int px, int py, boolean right, int vy) {
+        if (count == capacity()) allocate(capacity() * 2);
+        int i = count++;
+        typeId[i] = typeIndex(type);
+        x[i] = px; y[i] = py;
+        prevX[i] = px; prevY[i] = py;
+        dy[i] = vy;
+        speed[i] = type.speed;
+        width[i] = type.width;
+        height[i] = type.height;
+        spriteNum[i] = 0; spriteCounter[i] = 0; actionLock[i] = 0;
+        state[i] = STATE_SWIM;
+        direction[i] = right ? DIR_RIGHT : DIR_LEFT;
+        handle[i] = handles.allocate(i);
+        spawnTick[i] = world.tickCount;
+        rng[i] = world.random.entitySeed();
+        pending[i] = false;
+        return i;
+    }
+
+    /** Swap-remove ngay lập tức: con cuối chuyển vào chỗ i. */
+    public void remove(int i) {
+        handles.free(handle[i]);
+        int last = --count;
+        if (i == last) return;
+        x[i] = x[last]; y[i] = y[last];
+        prevX[i] = prevX[last]; prevY[i] = prevY[last];
+        dy[i] = dy[last]; speed[i] = speed[last];
+        width[i] = width[last]; height[i] = height[last];
+        typeId[i] = typeId[last];
+        spriteNum[i] = spriteNum[last]; spriteCounter[i] = spriteCounter[last];
+        actionLock[i] = actionLock[last];
+        state[i] = state[last]; direction[i] = direction[last];
+        handle[i] = handle[last]; pending[i] = pending[last];
+        spawnTick[i] = spawnTick[last];
+        rng[i] = rng[last];
+        handles.move(handle[i], i);
+    }
+
+    /** Đánh dấu con i cần xóa, xóa thật ở flushRemovals(). */
+    public void queueRemove(int i) {
+        if (pending[i]) return;
+        pending[i] = true;
+        if (queued == removeQueue.length) removeQueue = Arrays.copyOf(removeQueue, queued * 2);
+        removeQueue[queued++] = handle[i];
+    }
+
+    public boolean isPendingRemove(int i) {
+        return pending[i];
+    }
+
+    /** Xóa các con trong hàng đợi, mỗi con O(1). @return số con đã xóa */
+    public int flushRemovals() {
+        int n = 0;
+        for (int k = 0; k < queued; k++) {
+            int i = handles.slotOf(removeQueue[k]);
+            if (i >= 0) {
+                remove(i);
+                n++;
+            }
+        }
+        queued = 0;
+        return n;
+    }
+
+    /** Chỉ số hiện tại của con ứng với handle, hoặc -1 nếu nó đã bị xóa. */
+    public int resolve(long h) {
+        return handles.slotOf(h);
+    }
+
+    public int scoreValue(int i) {
+        return types.get(typeId[i]).scoreValue;
+    }
+
+    public void savePrevious() {
+        System.arraycopy(x, 0, prevX, 0, count);
+        System.arraycopy(y, 0, prevY, 0, count);
+    }
+
+    // ===================== UPDATE =====================
+
+    public void update(boolean allowMove) {
+        update(allowMove, null);
+    }
+
+    /**
+     * Update AI, vị trí, animation rồi xếp hàng xóa các con bơi ra khỏi thế giới
+     * và (nếu có director) các con quá xa camera / sống quá lâu.
+     */
+    public void update(boolean allowMove, SpawnDirector director) {
+        for (int i = 0; i < count; i++) {
+            if (allowMove && state[i] != STATE_TURN) {
+                updateAI(i);
+                updatePosition(i);
+            }
+            updateAnimation(i);
+        }
+        // Garbage Collection
+        int ww = world.worldWidth;
+        boolean despawnCheck = director != null && director.despawnCheckDue();
+        for (int i = 0; i < count; i++) {
+            if (x[i] < -200 || x[i] > ww + 200
+                    || (despawnCheck && director.shouldDespawn(x[i], y[i], width[i], height[i], spawnTick[i]))) {
+                queueRemove(i);
+            }
+        }
+    }
+
+    private void updateAI(int i) {
+        if (EnemyRules.hunts(hunter[typeId[i]], world.currentLevel.levelNum)) huntPlayer(i);
+        else normalSwimAI(i);
+    }
+
+    private void normalSwimAI(int i) {
+        actionLock[i]++;
+        if (actionLock[i] >= EnemyRules.changeTime(Rng.nextInt(rng, i, EnemyRules.CHANGE_SPREAD))) {
+            dy[i] = EnemyRules.swimDy(Rng.nextInt(rng, i, 3) - 1, Rng.nextInt(rng, i, 100));
+            if (EnemyRules.randomTurn(Rng.nextInt(rng, i, 100))) startTurning(i);
+            actionLock[i] = 0;
+        }
+    }
+
+    private void huntPlayer(int i) {
+        Player p = world.player;
+        if (EnemyRules.inHuntRange(p.x - x[i], p.y - y[i])) {
+            if (state[i] == STATE_SWIM && EnemyRules.shouldTurnToward(p.x, x[i], direction[i] == DIR_RIGHT)) {
+                startTurning(i);
+            }
+            // Tăng tốc nhẹ
+            x[i] += EnemyRules.huntBoost(direction[i] == DIR_RIGHT);
+            dy[i] = EnemyRules.huntDy(p.y, y[i], dy[i]);
+        } else {
+            normalSwimAI(i);
+        }
+    }
+
+    private void updatePosition(int i) {
+        boolean right = direction[i] == DIR_RIGHT;
+        x[i] += right ? speed[i] : -speed[i];
+        y[i] += dy[i];
+
+        int maxY = world.worldHeight - height[i];
+        dy[i] = EnemyRules.bounceDy(y[i], maxY, dy[i]);
+        y[i] = EnemyRules.clampY(y[i], maxY);
+
+        if (EnemyRules.hitsEdge(x[i], width[i], right, world.worldWidth)) startTurning(i);
+    }
+
+    private void updateAnimation(int i) {
+        if (!EnemyRules.frameDue(++spriteCounter[i])) return;
+        spriteCounter[i] = 0;
+        int frame = ++spriteNum[i];
+        MonsterType t = types.get(typeId[i]);
+
+        if (EnemyRules.animationDone(state[i], frame, t.swimCount, t.turnCount, t.eatCount)) {
+            if (EnemyRules.loops(state[i])) {
+                spriteNum[i] = 0;
+            } else {
+                if (state[i] == STATE_TURN) flipDirection(i);
+                enterState(i, STATE_SWIM);
+            }
+        }
+    }
+
+    private void flipDirection(int i) {
+        direction[i] = direction[i] == DIR_RIGHT ? DIR_LEFT : DIR_RIGHT;
+    }
+
+    /** Như Entity.enterState: chuyển trạng thái theo bảng của EntityState, false nếu không được phép. */
+    private boolean enterState(int i, byte next) {
+        if (!EntityState.canEnter(state[i], next)) return false;
+        state[i] = next; spriteNum[i] = 0; spriteCounter[i] = 0;
+        return true;
+    }
+
+    public void startTurning(int i) {
+        // Chỉ quay (có animation) khi đang bơi, còn lại lật hướng ngay
+        if (types.get(typeId[i]).turnCount > 0 && state[i] == STATE_SWIM) {
+            enterState(i, STATE_TURN);
+        } else {
+            flipDirection(i);
+        }
+    }
+
+    public void startEating(int i) {
+        if (types.get(typeId[i]).eatCount > 0) enterState(i, STATE_EAT);
+    }
+
+    // ===================== PREDATION =====================
+
+    /**
+     * Cá lớn ăn cá bé, cùng luật với Aquarium.checkPredatorCollision: va chạm theo hitbox
+     * (EnemyRules.hitPad, như solidArea bên Enemy), so kích thước theo sprite (EnemyRules.canEat).
+     */
+    public void checkPredatorCollision() {
+        int n = count;
+        if (n < 2) return;
+        for (int i = 0; i < n; i++) {
+            int padX = EnemyRules.hitPad(width[i]), padY = EnemyRules.hitPad(height[i]);
+            hitX[i] = x[i] + padX;
+            hitY[i] = y[i] + padY;
+            hitW[i] = width[i] - 2 * padX;
+            hitH[i] = height[i] - 2 * padY;
+        }
+        grid.rebuild(n, hitX, hitY, hitW, hitH, world.worldWidth, world.worldHeight);
+        int cols = grid.cols();
+
+        for (int i = 0; i < n; i++) {
+            if (pending[i]) continue;
+            int ax = hitX[i], ay = hitY[i], aw = hitW[i], ah = hitH[i];
+            int sizeA = width[i] * height[i];
+
+            int x0 = grid.cellX(ax), x1 = grid.cellX(ax + aw - 1);
+            int y0 = grid.cellY(ay), y1 = grid.cellY(ay + ah - 1);
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int cx = x0; cx <= x1; cx++) {
+                    int c = cy * cols + cx;
+                    for (int k = grid.cellStart(c), end = grid.cellEnd(c); k < end; k++) {
+                        int j = grid.item(k);
+                        if (j == i || pending[j]) continue;
+                        int bx = hitX[j], by = hitY[j], bw = hitW[j], bh = hitH[j];
+                        // Rectangle.intersects
+                        if (bx < ax + aw && ax < bx + bw && by < ay + ah && ay < by + bh
+                                && grid.ownsPair(cx, cy, ax, ay, bx, by)) {
+                            if (EnemyRules.canEat(sizeA, width[j] * height[j])) {
+                                startEating(i);
+                                queueRemove(j);
+                                PredationEvent ev = new PredationEvent();
+                                if (ev.shouldCommit()) {
+                                    ev.predator = types.get(typeId[i]).name;
+                                    ev.prey = types.get(typeId[j]).name;
+                                    ev.x = x[j];
+                                    ev.y = y[j];
+                                    ev.commit();
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // ===================== DRAW =====================
+
+    public void draw(Graphics2D g2) {
+        int camX = world.renderCameraX();
+        int camY = world.renderCameraY();
+        double alpha = world.paintAlpha;
+
+        for (int i = 0; i < count; i++) {
+            int w = width[i], h = height[i];
+            int screenX = (int) Math.round(prevX[i] + (x[i] - prevX[i]) * alpha) - camX;
+            int screenY = (int) Math.round(prevY[i] + (y[i] - prevY[i]) * alpha) - camY;
+            // Culling
+            if (screenX + w < 0 || screenX > world.screenWidth ||
+                screenY + h < 0 || screenY > world.screenHeight) continue;
+
+            MonsterType t = types.get(typeId[i]);
+            if (t.atlas == null) continue;
+            EntityState anim = EntityState.of(state[i]);
+            int f = spriteNum[i];
+            if (t.atlas.frameCount(anim) == 0) anim = EntityState.SWIM;
+            if (anim == EntityState.SWIM && f >= t.atlas.frameCount(anim)) f = 0;
+            t.atlas.draw(g2, anim, f, screenX, screenY, w, h, direction[i] == DIR_RIGHT);
+        }
+    }
+}
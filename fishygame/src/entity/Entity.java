@@ -1,23 +1,24 @@
 package entity;
 
 import java.awt.Rectangle;
-import java.awt.image.BufferedImage;
+import render.SpriteAtlas;
 
 public class Entity {
     
     public int x, y;
+    // Vị trí ở bước mô phỏng trước, dùng để nội suy khi vẽ
+    public int prevX, prevY;
     public int speed;
     public int width = 64, height = 64;
     
     // State
-    public String direction = "left"; 
-    public String state = "swim";     
+    public Direction direction = Direction.LEFT;
+    public EntityState state = EntityState.SWIM;
     
-    // Frames
-    public BufferedImage[] swimFrames;
-    public BufferedImage[] eatFrames;
-    public BufferedImage[] turnFrames;
-    public BufferedImage[] idleFrames;
+    // Frames: toàn bộ animation nằm trong một atlas (null khi chạy headless)
+    public SpriteAtlas atlas;
+    // Số frame của từng animation (logic dùng số này, không cần ảnh -> chạy được headless)
+    public int swimCount, turnCount, eatCount, idleCount;
 
     // Logic
     public Rectangle solidArea;
@@ -30,21 +31,40 @@ public class Entity {
     // >> ĐÃ XÓA: dy, actionLockCounter (Vì đã chuyển sang Enemy.java)
     
     // Helpers
+    public void savePrevious() {
+        prevX = x;
+        prevY = y;
+    }
+
+    public int renderX(double alpha) {
+        return (int) Math.round(prevX + (x - prevX) * alpha);
+    }
+
+    public int renderY(double alpha) {
+        return (int) Math.round(prevY + (y - prevY) * alpha);
+    }
+
+    /** Chuyển trạng thái theo bảng của EntityState; trả về false nếu không được phép. */
+    public boolean enterState(EntityState next) {
+        if (!state.canEnter(next)) return false;
+        state = next; spriteNum = 0; spriteCounter = 0;
+        return true;
+    }
+
     public void startEating() {
-        if (eatFrames != null && eatFrames.length > 0 && !state.equals("turn")) {
-            state = "eat"; spriteNum = 0; spriteCounter = 0;
-        }
+        if (eatCount > 0) enterState(EntityState.EAT);
     }
 
     public void startTurning() {
-        if (turnFrames != null && turnFrames.length > 0 && state.equals("swim")) {
-            state = "turn"; spriteNum = 0; spriteCounter = 0;
+        // Chỉ quay (có animation) khi đang bơi, còn lại lật hướng ngay
+        if (turnCount > 0 && state == EntityState.SWIM) {
+            enterState(EntityState.TURN);
         } else {
             flipDirection();
         }
     }
     
     public void flipDirection() {
-        direction = direction.equals("left") ? "right" : "left";
+        direction = direction.opposite();
     }
 }
\ No newline at end of file
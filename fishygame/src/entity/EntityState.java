@@ -0,0 +1,44 @@
+package entity;
+
+/**
+ * Trạng thái animation của Entity (thay cho chuỗi "swim"/"eat"/"turn"/"idle").
+ * So sánh bằng == thay vì equals; code là byte để lưu vào mảng primitive (EnemyStore).
+ *
+ * Bảng chuyển trạng thái dùng chung cho Enemy và Player (mọi chuyển trạng thái đi qua
+ * Entity.enterState, gán thẳng chỉ khi khởi tạo / reset):
+ *   SWIM/IDLE -> mọi trạng thái
+ *   EAT       -> SWIM, IDLE, EAT (ăn tiếp con khác thì chạy lại animation)
+ *   TURN      -> SWIM (quay xong mới được làm việc khác, kể cả ăn)
+ */
+public enum EntityState {
+    SWIM(0), EAT(1), TURN(2), IDLE(3);
+
+    public final byte code;
+
+    EntityState(int code) {
+        this.code = (byte) code;
+    }
+
+    private static final EntityState[] BY_CODE = values();
+
+    // ALLOWED[from][to]
+    private static final boolean[][] ALLOWED = {
+        //           SWIM   EAT    TURN   IDLE
+        /* SWIM */ { true,  true,  true,  true  },
+        /* EAT  */ { true,  true,  false, true  },
+        /* TURN */ { true,  false, false, false },
+        /* IDLE */ { true,  true,  true,  true  },
+    };
+
+    public boolean canEnter(EntityState next) {
+        return ALLOWED[code][next.code];
+    }
+
+    public static boolean canEnter(byte from, byte to) {
+        return ALLOWED[from][to];
+    }
+
+    public static EntityState of(byte code) {
+        return BY_CODE[code];
+    }
+}
@@ -0,0 +1,79 @@
+package entity;
+
+import java.util.Arrays;
+
+/**
+ * Bảng handle có thế hệ (generational handle) cho entity.
+ *
+ * Handle là một long = (generation << 32) | id. Bảng giữ vị trí (slot) hiện tại của
+ * mỗi id trong kho chứa. Khi entity bị xóa, generation của id tăng lên nên mọi handle
+ * cũ trỏ tới nó trở thành "stale": resolve trả về -1 thay vì trỏ nhầm sang con khác
+ * đang dùng lại id/slot đó. AI target, sự kiện... nên giữ handle thay vì chỉ số mảng.
+ */
+public class HandleTable {
+    public static final long NONE = 0; // generation luôn >= 1 nên 0 không bao giờ hợp lệ
+
+    private int[] slot = new int[64];        // id -> vị trí trong kho, -1 nếu id đang rảnh
+    private int[] generation = new int[64];  // id -> thế hệ hiện tại
+    private int[] freeIds = new int[64];
+    private int freeCount = 0;
+    private int nextId = 0;
+    private int live = 0;
+
+    /** Cấp handle mới cho entity đang nằm ở vị trí s. */
+    public long allocate(int s) {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            id = nextId++;
+            if (id == slot.length) {
+                slot = Arrays.copyOf(slot, id * 2);
+                generation = Arrays.copyOf(generation, id * 2);
+            }
+            generation[id] = 1;
+        }
+        slot[id] = s;
+        live++;
+        return ((long) generation[id] << 32) | id;
+    }
+
+    /** Entity đã bị xóa: vô hiệu mọi handle cũ và trả id về danh sách rảnh. */
+    public void free(long handle) {
+        if (!isAlive(handle)) return;
+        int id = (int) handle;
+        slot[id] = -1;
+        if (++generation[id] == 0) generation[id] = 1;
+        if (freeCount == freeIds.length) freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        freeIds[freeCount++] = id;
+        live--;
+    }
+
+    /** Entity được chuyển sang vị trí khác (swap-remove). */
+    public void move(long handle, int s) {
+        if (isAlive(handle)) slot[(int) handle] = s;
+    }
+
+    /** Vị trí hiện tại của entity, hoặc -1 nếu handle đã cũ / không hợp lệ. */
+    public int slotOf(long handle) {
+        return isAlive(handle) ? slot[(int) handle] : -1;
+    }
+
+    public boolean isAlive(long handle) {
+        int id = (int) handle;
+        int gen = (int) (handle >>> 32);
+        return id >= 0 && id < nextId && gen != 0 && generation[id] == gen && slot[id] >= 0;
+    }
+
+    /** Xóa hết (reset game / đổi level): mọi handle đang có đều thành stale. */
+    public void clear() {
+        for (int id = 0; id < nextId; id++) {
+            if (slot[id] >= 0) free(((long) generation[id] << 32) | id);
+        }
+    }
+
+    /** Số entity đang sống. */
+    public int size() {
+        return live;
+    }
+}
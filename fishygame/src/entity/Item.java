@@ -4,16 +4,16 @@ import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import javax.imageio.ImageIO;
-import main.GamePanel;
+import main.World;
 
 public class Item extends Entity {
-    GamePanel gp;
+    World world;
     public BufferedImage image;
     public boolean collected = false;
     private int speed = 2; // Tốc độ rơi của vật phẩm
 
-    public Item(GamePanel gp, int x, int y) {
-        this.gp = gp;
+    public Item(World world, int x, int y) {
+        this.world = world;
         this.x = x;
         this.y = y;
         this.width = 32;
@@ -36,18 +36,18 @@ public class Item extends Entity {
         y += speed;
 
         // Nếu rơi quá giới hạn thế giới thì biến mất
-        if (y > gp.worldHeight) {
+        if (y > world.worldHeight) {
             collected = true; 
         }
     }
 
     public void draw(Graphics2D g2) {
-        int screenX = x - gp.cameraX;
-        int screenY = y - gp.cameraY;
+        int screenX = x - world.cameraX;
+        int screenY = y - world.cameraY;
 
         // Tối ưu: Chỉ vẽ khi nằm trong khung hình camera
-        if (x + width > gp.cameraX && x < gp.cameraX + gp.screenWidth &&
-            y + height > gp.cameraY && y < gp.cameraY + gp.screenHeight) {
+        if (x + width > world.cameraX && x < world.cameraX + world.screenWidth &&
+            y + height > world.cameraY && y < world.cameraY + world.screenHeight) {
             g2.drawImage(image, screenX, screenY, width, height, null);
         }
     }
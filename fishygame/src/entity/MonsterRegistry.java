@@ -0,0 +1,53 @@
+package entity;
+
+import java.util.HashMap;
+import main.LevelCatalog;
+import render.SpriteAtlas;
+
+/**
+ * Bảng MonsterType dùng chung cho cả tiến trình, khóa theo tên loài
+ * (thông số lấy từ dòng species trong LevelCatalog).
+ * Mỗi loài chỉ được tạo (và decode sprite) một lần; Level chỉ tham chiếu tới các mục ở đây,
+ * nên qua màn / New Game không decode lại ảnh nào. MonsterType bất biến nên dùng chung được
+ * giữa nhiều World / thread; pool Enemy thì mỗi Aquarium giữ riêng.
+ *
+ * Có hai bảng: có sprite (game thật) và headless (chỉ số frame, không ảnh).
+ */
+public final class MonsterRegistry {
+    private static final MonsterRegistry WITH_SPRITES = new MonsterRegistry(true);
+    private static final MonsterRegistry HEADLESS = new MonsterRegistry(false);
+
+    public static MonsterRegistry get(boolean loadSprites) {
+        return loadSprites ? WITH_SPRITES : HEADLESS;
+    }
+
+    private final boolean loadSprites;
+    private final HashMap<String, MonsterType> types = new HashMap<>();
+
+    private MonsterRegistry(boolean loadSprites) {
+        this.loadSprites = loadSprites;
+    }
+
+    /** MonsterType của loài name, tạo (và load sprite) ở lần gọi đầu tiên. */
+    public synchronized MonsterType type(String name) {
+        MonsterType t = types.get(name);
+        if (t != null) return t;
+        LevelCatalog.Species s = LevelCatalog.get().species(name);
+        if (s == null) throw new IllegalArgumentException("Unknown species: " + name);
+        t = new MonsterType(name, s.folder, s.speed, s.width, s.height, s.score,
+                s.swimCount, s.turnCount, s.eatCount, s.idleCount, s.hunter, loadSprites);
+        types.put(name, t);
+        return t;
+    }
+
+    /** Xếp hàng decode sprite của mọi loài đã định nghĩa (không chờ). */
+    public static void preloadAll() {
+        for (LevelCatalog.Species s : LevelCatalog.get().allSpecies()) {
+            SpriteAtlas.preload(s.folder, s.name, s.swimCount, s.turnCount, s.eatCount, s.idleCount);
+        }
+    }
+
+    public synchronized int size() {
+        return types.size();
+    }
+}
@@ -2,69 +2,88 @@ package entity;
 
 import java.awt.image.BufferedImage;
 import java.awt.Rectangle;
-import javax.imageio.ImageIO;
 
-import main.GamePanel;
+import main.World;
+import render.SpriteAtlas;
 
-public class MonsterType extends Entity
+/**
+ * Thông số + sprite của một loài cá. Là flyweight bất biến dùng chung cho mọi Enemy
+ * cùng loài (và mọi World trong tiến trình); lấy qua MonsterRegistry, không tạo mới mỗi level.
+ * Không giữ trạng thái nào thay đổi được: pool Enemy nằm ở Aquarium của từng World.
+ */
+public class MonsterType
 {
-        String name;
-        String folderPath; // Thư mục chứa ảnh (VD: /res/minnow/)
-        int speed;
-        public int width, height;
-        int scoreValue;
+        final String name;
+        final String folderPath; // Thư mục chứa ảnh (VD: /res/minnow/)
+        final int speed;
+        public final int width, height;
+        final int scoreValue;
+        public final boolean hunter; // đuổi theo player (cờ hunter trong levels.txt)
+        // Số frame của từng animation
+        public final int swimCount, turnCount, eatCount, idleCount;
         
-        // Mảng chứa animation frames
-        public BufferedImage[] swimFrames;
-        public BufferedImage[] turnFrames;
-        public BufferedImage[] eatFrames;
-        public BufferedImage[] idleFrames;
+        // Atlas chứa mọi animation frame của loài (swim/turn/eat/idle), null khi headless
+        public final SpriteAtlas atlas;
+        private final BufferedImage icon; // frame swim đầu tiên, null khi headless
 
         public MonsterType(String name, String folder, int speed, int w, int h, int score, 
                            int swimCount, int turnCount, int eatCount, int idleCount) {
+            this(name, folder, speed, w, h, score, swimCount, turnCount, eatCount, idleCount, false, true);
+        }
+
+        /**
+         * @param hunter: đuổi theo player từ level 2
+         * @param loadSprites: false khi chạy headless, chỉ giữ số frame chứ không decode ảnh
+         */
+        public MonsterType(String name, String folder, int speed, int w, int h, int score, 
+                           int swimCount, int turnCount, int eatCount, int idleCount,
+                           boolean hunter, boolean loadSprites) {
             this.name = name;
             this.folderPath = folder;
             this.speed = speed;
             this.width = w;
             this.height = h;
             this.scoreValue = score;
+            this.hunter = hunter;
+            this.swimCount = swimCount;
+            this.turnCount = turnCount;
+            this.eatCount = eatCount;
+            this.idleCount = idleCount;
             
-            // Load ảnh động
-            this.swimFrames = loadFrames(name + "swim", swimCount);
-            this.turnFrames = loadFrames(name + "turn", turnCount);
-            
-            if (eatCount > 0) this.eatFrames = loadFrames(name + "eat", eatCount);
-            if (idleCount > 0) this.idleFrames = loadFrames(name + "idle", idleCount);
+            // Load ảnh động, xếp vào một atlas
+            this.atlas = loadSprites
+                    ? SpriteAtlas.load(folderPath, name, swimCount, turnCount, eatCount, idleCount)
+                    : null;
+            this.icon = atlas == null ? null : atlas.frameImage(EntityState.SWIM, 0);
         }
 
-        private BufferedImage[] loadFrames(String prefix, int count) {
-            BufferedImage[] frames = new BufferedImage[count];
-            try {
-                for (int i = 0; i < count; i++) {
-                    // Path: /res/folder/prefix + index + .png
-                    String path = folderPath + prefix + (i + 1) + ".png";
-                    frames[i] = ImageIO.read(getClass().getResourceAsStream(path));
-                }
-            } catch (Exception e) {
-                System.err.println("Error loading: " + prefix);
-            }
-            return frames;
+        /** Frame swim đầu tiên, dùng làm icon trên HUD. */
+        public BufferedImage icon() {
+            return icon;
         }
-    public Enemy createMonster(GamePanel gp) {
+
+    public String getName() {
+        return name;
+    }
+
+    /** Tạo một Enemy mới của loài này (EnemyPool gọi khi pool rỗng). */
+    public Enemy createMonster(World world) {
         // >> KHỞI TẠO ENEMY từ chính MonsterType này
-        Enemy monster = new Enemy(gp);
+        Enemy monster = new Enemy(world);
 
+        monster.type = this;
         monster.name = this.name;
         monster.speed = this.speed;
         monster.width = this.width;
         monster.height = this.height;
         monster.scoreValue = this.scoreValue;
 
-        // Copy references to frames
-        monster.swimFrames = this.swimFrames;
-        monster.turnFrames = this.turnFrames;
-        monster.eatFrames = this.eatFrames;
-        monster.idleFrames = this.idleFrames;
+        // Dùng chung atlas của loài
+        monster.atlas = this.atlas;
+        monster.swimCount = this.swimCount;
+        monster.turnCount = this.turnCount;
+        monster.eatCount = this.eatCount;
+        monster.idleCount = this.idleCount;
 
         // Setup hitbox based on this type's dimensions
         monster.solidArea = new Rectangle(0, 0, this.width, this.height);
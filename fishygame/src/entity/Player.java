@@ -1,37 +1,34 @@
 package entity;
 
-import input.MouseHandler;
-
 import java.awt.AlphaComposite;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
-import main.GamePanel;
+import main.LevelCatalog;
+import main.World;
+import render.AssetManager;
+import render.SpriteAtlas;
 
 public class Player extends Entity {
-    GamePanel gp;
-    MouseHandler mouseH;
+    World world;
     
     // --- 1. CONSTANTS ---
-    final int EAT_FRAMES = 6;
-    final int IDLE_FRAMES = 6;
-    final int SWIM_FRAMES = 15;
-    final int TURN_FRAMES = 5;
+    static final int EAT_FRAMES = 6;
+    static final int IDLE_FRAMES = 6;
+    static final int SWIM_FRAMES = 15;
+    static final int TURN_FRAMES = 5;
     
     // >> CẬP NHẬT KÍCH THƯỚC GỐC THEO ẢNH, size player
     final int BASE_WIDTH = 50; 
     final int BASE_HEIGHT = 40; 
     
     // --- 2. ASSETS ---
-    public BufferedImage[] eatFrames, idleFrames, swimFrames, turnFrames;
     public BufferedImage upBubble; 
     
     // --- 3. MOVEMENT & LOGIC VARIABLES ---
     private double exactX, exactY;
     private double easing = 0.05;
-    private String currentFacing = "right"; 
+    private Direction currentFacing = Direction.RIGHT;
     
     // --- 4. LEVEL & EFFECT STATE ---
     private int currentLevel = 1; 
@@ -42,17 +39,15 @@ public class Player extends Entity {
     public boolean invincible = false;
     public int invincibleCounter = 0;
     
-    public Player(GamePanel gp, MouseHandler mouseH) {
-        this.gp = gp;
-        this.mouseH = mouseH;
-        
-        eatFrames = new BufferedImage[EAT_FRAMES];
-        idleFrames = new BufferedImage[IDLE_FRAMES];
-        swimFrames = new BufferedImage[SWIM_FRAMES];
-        turnFrames = new BufferedImage[TURN_FRAMES];
+    public Player(World world) {
+        this.world = world;
+        swimCount = SWIM_FRAMES;
+        turnCount = TURN_FRAMES;
+        eatCount = EAT_FRAMES;
+        idleCount = IDLE_FRAMES;
         
         setDefaultValues();
-        getPlayerImageByLoop(); 
+        if (!world.headless) getPlayerImageByLoop(); 
     }
 
     public void setDefaultValues() {
@@ -60,21 +55,22 @@ public class Player extends Entity {
         updateSize(1.0); // Bắt đầu với tỷ lệ 1.0
         resetPosition();
         
-        x = gp.worldWidth / 2 - width / 2;
-        y = gp.worldHeight / 2 - height / 2;
+        x = world.worldWidth / 2 - width / 2;
+        y = world.worldHeight / 2 - height / 2;
         
         speed = 5; 
-        state = "idle";
-        direction = "right";
-        currentFacing = "right";
+        state = EntityState.IDLE;
+        direction = Direction.RIGHT;
+        currentFacing = Direction.RIGHT;
         solidArea = new Rectangle((int)x, (int)y, width, height);
     }
     
     public void resetPosition() {
-        x = gp.worldWidth / 2 - width / 2;
-        y = gp.worldHeight / 2 - height / 2;
+        x = world.worldWidth / 2 - width / 2;
+        y = world.worldHeight / 2 - height / 2;
         exactX = x;
         exactY = y;
+        savePrevious(); // dịch chuyển tức thời, không nội suy
         solidArea = new Rectangle((int)x, (int)y, width, height);
     }
 
@@ -94,22 +90,14 @@ public class Player extends Entity {
         }
     }
 
-    public void getPlayerImageByLoop() {
-        try {
-            for (int i = 0; i < EAT_FRAMES; i++) 
-                eatFrames[i] = ImageIO.read(getClass().getResourceAsStream("/res/angelfish/angelfisheat" + (i + 1) + ".png"));
-            for (int i = 0; i < IDLE_FRAMES; i++) 
-                idleFrames[i] = ImageIO.read(getClass().getResourceAsStream("/res/angelfish/angelfishidle" + (i + 1) + ".png"));
-            for (int i = 0; i < SWIM_FRAMES; i++) 
-                swimFrames[i] = ImageIO.read(getClass().getResourceAsStream("/res/angelfish/angelfishswim" + (i + 1) + ".png"));
-            for (int i = 0; i < TURN_FRAMES; i++) 
-                turnFrames[i] = ImageIO.read(getClass().getResourceAsStream("/res/angelfish/angelfishturn" + (i + 1) + ".png"));
-            
-            upBubble = ImageIO.read(getClass().getResourceAsStream("/res/animation/up.png"));
+    /** Xếp hàng decode sprite của player trên AssetManager (không chờ). */
+    public static void preload() {
+        SpriteAtlas.preload("/res/angelfish/", "angelfish", SWIM_FRAMES, TURN_FRAMES, EAT_FRAMES, IDLE_FRAMES);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    public void getPlayerImageByLoop() {
+        atlas = SpriteAtlas.load("/res/angelfish/", "angelfish", SWIM_FRAMES, TURN_FRAMES, EAT_FRAMES, IDLE_FRAMES);
+        upBubble = AssetManager.get().image("/res/animation/up.png");
     }
 
     public void update() {
@@ -123,8 +111,8 @@ public class Player extends Entity {
         // Movement Logic
         double centerX = exactX + width / 2.0;
         double centerY = exactY + height / 2.0;
-        double mouseWorldX = mouseH.mouseX + gp.cameraX;
-        double mouseWorldY = mouseH.mouseY + gp.cameraY;
+        double mouseWorldX = world.input.mouseX + world.cameraX;
+        double mouseWorldY = world.input.mouseY + world.cameraY;
 
         double dx = mouseWorldX - centerX;
         double dy = mouseWorldY - centerY;
@@ -134,36 +122,32 @@ public class Player extends Entity {
 
         // Boundary Check
         if (exactX < 0) exactX = 0;
-        if (exactX > gp.worldWidth - width) exactX = gp.worldWidth - width;
+        if (exactX > world.worldWidth - width) exactX = world.worldWidth - width;
         final int HUD_HEIGHT = 120;
         int topBoundary = HUD_HEIGHT;
         // 2. Kiểm tra và giới hạn vị trí Y
         if (exactY < topBoundary) {
             exactY = topBoundary; // Đặt lại vị trí Y chính xác là mép dưới
         }
-        if (exactY > gp.worldHeight - height) exactY = gp.worldHeight - height;
+        if (exactY > world.worldHeight - height) exactY = world.worldHeight - height;
 
         x = (int) exactX;
         y = (int) exactY;
 
-        // Facing Logic
-        if (!state.equals("eat") && !state.equals("turn")) {
-            if (Math.abs(dx) > 1.0) {
-                String newFacing = (dx > 0) ? "right" : "left";
-                if (!newFacing.equals(currentFacing)) {
-                    state = "turn";
-                    currentFacing = newFacing;
-                    spriteNum = 0; 
-                }
+        // Facing Logic (bảng EntityState: đang ăn / đang quay thì chưa quay tiếp)
+        if (Math.abs(dx) > 1.0) {
+            Direction newFacing = Direction.of(dx > 0);
+            if (newFacing != currentFacing && enterState(EntityState.TURN)) {
+                currentFacing = newFacing;
             }
-
         }
 
         // State Update
-        if (!state.equals("turn") && !state.equals("eat")) {
+        if (state == EntityState.SWIM || state == EntityState.IDLE) {
             // Use hypot for stable distance calculation, then apply easing
             double velocity = Math.hypot(dx, dy) * easing;
-            state = (velocity > 0.5) ? "swim" : "idle";
+            EntityState moving = (velocity > 0.5) ? EntityState.SWIM : EntityState.IDLE;
+            if (moving != state) enterState(moving);
         }
 
         solidArea.x = x;
@@ -175,14 +159,18 @@ public class Player extends Entity {
             spriteNum++;
             spriteCounter = 0;
             
-            if (state.equals("eat")) {
-                if (spriteNum >= EAT_FRAMES) { state = "swim"; spriteNum = 0; }
-            } else if (state.equals("turn")) {
-                if (spriteNum >= TURN_FRAMES) { state = "swim"; spriteNum = 0; }
-            } else if (state.equals("swim")) {
-                if (spriteNum >= SWIM_FRAMES) spriteNum = 0;
-            } else { // idle
-                if (spriteNum >= IDLE_FRAMES) spriteNum = 0;
+            switch (state) {
+                case EAT:
+                    if (spriteNum >= EAT_FRAMES) enterState(EntityState.SWIM);
+                    break;
+                case TURN:
+                    if (spriteNum >= TURN_FRAMES) enterState(EntityState.SWIM);
+                    break;
+                case SWIM:
+                    if (spriteNum >= SWIM_FRAMES) spriteNum = 0;
+                    break;
+                default: // idle
+                    if (spriteNum >= IDLE_FRAMES) spriteNum = 0;
             }
         }
         
@@ -193,85 +181,44 @@ public class Player extends Entity {
     }
     
     private void checkLevelUp() {
-        int newLevel = currentLevel;
-        double scale = 1.0;
-
-        // >> LOGIC SCALE MỚI (Dựa trên tính toán diện tích)
-        if(gp.score <= 2000)
-        {
-            if (gp.score >= 900) {
-                newLevel = 3;
-                scale = 2; 
-            } else if (gp.score >= 300) {
-                newLevel = 2;
-                scale = 1.5; 
-            } else {
-                newLevel = 1;
-                scale = 1.0; 
-            }
-        }
-        else if(gp.score <= 5000) //level 2 > 2,000 points
-        {
-            if (gp.score >= 3600) {
-                newLevel = 5;
-                scale = 2.0; // Size: 125x100 (Area 18,000 > Clownfish 16,200)
-            } else if (gp.score >= 2400) {
-                newLevel = 4;
-                scale = 1.5; // Size: 113x90 (Area 12,500 > Goldfish 12,000)
-            } 
-        }
-        else if(gp.score<=10000)//level 3 > 5,000 points
-        {
-            if(gp.score >= 7500) {
-                newLevel = 7;
-                scale = 2.0; // Size: 150x120 (Area 36,000 > Butterflyfish 28,800)
-            } else if (gp.score >= 5500) {
-                newLevel = 6;
-                scale = 1.5; // Size: 138x110 (Area 15,180 > Angelfish 14,400)
-            }
-        }
+        // Mốc tiến hóa của level hiện tại (levels.txt, dòng growth)
+        LevelCatalog.Milestone m = world.currentLevel.def.reached(world.score);
+        if (m == null) return;
+        int newLevel = m.stage;
+        double scale = m.scale;
         if (newLevel > currentLevel) {
             currentLevel = newLevel;
             updateSize(scale); 
             showEffect = true;
             effectCounter = 60; 
             System.out.println("LEVEL UP! Scale: " + scale);
-            gp.playSE(1);
+            world.playSE(1);
         }
     }
 
     public void draw(Graphics2D g2) {
-        BufferedImage currentFrame = null;
-        
-        if (state.equals("eat") && spriteNum < EAT_FRAMES) currentFrame = eatFrames[spriteNum];
-        else if (state.equals("turn") && spriteNum < TURN_FRAMES) currentFrame = turnFrames[spriteNum];
-        else if (state.equals("swim") && spriteNum < SWIM_FRAMES) currentFrame = swimFrames[spriteNum];
-        else if (spriteNum < IDLE_FRAMES) currentFrame = idleFrames[spriteNum];
+        if (atlas == null) return;
 
-        
-        if (currentFrame != null) {
+        // Chọn frame trong atlas (hết frame của state hiện tại thì rơi về idle như cũ)
+        EntityState anim = EntityState.IDLE;
+        if (state == EntityState.EAT && spriteNum < EAT_FRAMES) anim = EntityState.EAT;
+        else if (state == EntityState.TURN && spriteNum < TURN_FRAMES) anim = EntityState.TURN;
+        else if (state == EntityState.SWIM && spriteNum < SWIM_FRAMES) anim = EntityState.SWIM;
+
+        if (atlas.frame(anim, spriteNum) != null) {
             // Vẽ theo kích thước thật đã được scale
             int drawWidth = this.width;
             int drawHeight = this.height;
             
-            AffineTransform oldTransform = g2.getTransform();
-            
             if (invincible) {
                 g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.6f));
             }
             
-            int screenX = x - gp.cameraX;
-            int screenY = y - gp.cameraY;
+            int screenX = renderX(world.paintAlpha) - world.renderCameraX();
+            int screenY = renderY(world.paintAlpha) - world.renderCameraY();
             
-            g2.translate(screenX, screenY);
-
-            if (currentFacing.equals("right") && !state.equals("turn")) {
-                g2.transform(AffineTransform.getScaleInstance(-1, 1));
-                g2.translate(-drawWidth, 0);
-            }
-
-            g2.drawImage(currentFrame, 0, 0, drawWidth, drawHeight, null);
-            g2.setTransform(oldTransform);
+            boolean flip = currentFacing == Direction.RIGHT && state != EntityState.TURN;
+            atlas.draw(g2, anim, spriteNum, screenX, screenY, drawWidth, drawHeight, flip);
             
             if (showEffect && upBubble != null) {
             // 1. Cấu hình kích thước mong muốn
@@ -279,10 +226,10 @@ public class Player extends Entity {
             
             // 2. Tính toán vị trí X để bong bóng nằm GIỮA đầu Player
             // Công thức: (Tâm Player) - (Một nửa kích thước bong bóng) - (Camera)
-            int bubbleX = (int)(x + width/2 - bubbleSize/2) - gp.cameraX;
+            int bubbleX = screenX + width/2 - bubbleSize/2;
             
             // 3. Tính toán vị trí Y (Bay lên)
-            int bubbleY = (int)(y - 20) - gp.cameraY;
+            int bubbleY = screenY - 20;
             int floatOffset = (60 - effectCounter); 
             
             // 4. Vẽ với kích thước mới (bubbleSize, bubbleSize)
@@ -298,9 +245,8 @@ public class Player extends Entity {
     }
     
     public void eating() {
-        state = "eat";
-        spriteNum = 0;
-        spriteCounter = 0;
-        gp.playSE(3);
+        // Đang quay thì bỏ animation ăn (bảng EntityState), điểm và tiếng vẫn tính
+        enterState(EntityState.EAT);
+        world.playSE(3);
     }
 }
\ No newline at end of file
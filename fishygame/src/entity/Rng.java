@@ -0,0 +1,75 @@
+package entity;
+
+/**
+ * Bộ sinh số ngẫu nhiên SplitMix64: trạng thái chỉ là một long, không synchronized, không CAS
+ * (khác java.util.Random). Mỗi luồng ngẫu nhiên (spawn, AI của từng con cá...) là một Rng
+ * riêng tách ra từ seed của World (WorldRandom), nên kết quả không phụ thuộc thứ tự các
+ * con được update và có thể chạy song song mà vẫn lặp lại được.
+ *
+ * EnemyStore giữ trạng thái từng con trong một long[], dùng các hàm static nextInt(states, i, bound).
+ */
+public final class Rng {
+    static final long GAMMA = 0x9E3779B97F4A7C15L; // số vàng 64 bit, bước của SplitMix64
+
+    private long state;
+
+    public Rng(long seed) {
+        state = seed;
+    }
+
+    public void setSeed(long seed) {
+        state = seed;
+    }
+
+    public long nextLong() {
+        return mix64(state += GAMMA);
+    }
+
+    /** Số nguyên trong [0, bound), bound > 0. */
+    public int nextInt(int bound) {
+        return scale(nextLong(), bound);
+    }
+
+    /** Số thực trong [0, 1). */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    /** Một Rng mới độc lập với Rng này (tiêu tốn một giá trị của nó). */
+    public Rng split() {
+        return new Rng(mix64(nextLong()));
+    }
+
+    // ===================== DẠNG MẢNG (EnemyStore) =====================
+
+    /** Như nextInt(bound) nhưng trạng thái là states[i]. */
+    public static int nextInt(long[] states, int i, int bound) {
+        return scale(mix64(states[i] += GAMMA), bound);
+    }
+
+    // ===================== HÀM TRỘN =====================
+
+    /**
+     * Seed của luồng id trong nhóm stream, tách từ seed gốc. Chỉ phụ thuộc (seed, stream, id),
+     * không phụ thuộc đã lấy bao nhiêu số từ các luồng khác.
+     */
+    public static long derive(long seed, long stream, long id) {
+        return mix64(seed + mix64(stream * GAMMA + id));
+    }
+
+    /** Bộ trộn cuối của SplitMix64 (Stafford variant 13). */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // 31 bit cao nhân bound, lấy phần nguyên: [0, bound), không dùng phép chia
+    private static int scale(long z, int bound) {
+        return (int) (((z >>> 33) * bound) >>> 31);
+    }
+}
@@ -0,0 +1,112 @@
+package entity;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Lưới đều (uniform grid) phủ lên thế giới, dựng lại mỗi tick bằng counting sort.
+ * Mỗi con cá được ghi vào mọi ô mà hitbox của nó phủ lên. Khi truy vấn, predator
+ * chỉ duyệt các ô nó phủ lên.
+ *
+ * Một cặp cá có thể cùng nằm trong nhiều ô; để mỗi cặp chỉ được xét một lần,
+ * dùng ownsPair(): cặp chỉ được xử lý ở ô chứa góc trên-trái của phần giao nhau.
+ *
+ * Không cấp phát gì khi số lượng cá không tăng (các mảng được tái sử dụng).
+ */
+public class SpatialGrid {
+    public static final int CELL_SIZE = 64;
+
+    private int cols, rows;
+
+    // cellStart[c] .. cellStart[c+1]-1 là vị trí trong items[] của các con nằm ở ô c
+    private int[] cellStart = new int[0];
+    private int[] cellFill = new int[0];
+    private int[] items = new int[0];     // chỉ số entity
+
+    // Hitbox tạm khi dựng từ danh sách Enemy
+    private int[] bx = new int[0], by = new int[0], bw = new int[0], bh = new int[0];
+
+    /** Dựng lại lưới cho danh sách Enemy (hitbox = solidArea). */
+    public void rebuild(ArrayList<Enemy> entities, int worldWidth, int worldHeight) {
+        int n = entities.size();
+        if (bx.length < n) {
+            int cap = Math.max(n, bx.length * 2);
+            bx = new int[cap]; by = new int[cap]; bw = new int[cap]; bh = new int[cap];
+        }
+        for (int i = 0; i < n; i++) {
+            Rectangle r = entities.get(i).solidArea;
+            bx[i] = r.x; by[i] = r.y; bw[i] = r.width; bh[i] = r.height;
+        }
+        rebuild(n, bx, by, bw, bh, worldWidth, worldHeight);
+    }
+
+    /** Dựng lại lưới từ các mảng hitbox song song (dùng cho EnemyStore). */
+    public void rebuild(int n, int[] xs, int[] ys, int[] ws, int[] hs, int worldWidth, int worldHeight) {
+        cols = Math.max(1, (worldWidth + CELL_SIZE - 1) / CELL_SIZE);
+        rows = Math.max(1, (worldHeight + CELL_SIZE - 1) / CELL_SIZE);
+        int cells = cols * rows;
+
+        if (cellStart.length < cells + 1) {
+            cellStart = new int[cells + 1];
+            cellFill = new int[cells];
+        }
+
+        // 1. Đếm số con mỗi ô
+        Arrays.fill(cellStart, 0, cells + 1, 0);
+        for (int i = 0; i < n; i++) {
+            int x0 = cellX(xs[i]), x1 = cellX(xs[i] + ws[i] - 1);
+            int y0 = cellY(ys[i]), y1 = cellY(ys[i] + hs[i] - 1);
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int cx = x0; cx <= x1; cx++) {
+                    cellStart[cy * cols + cx + 1]++;
+                }
+            }
+        }
+
+        // 2. Prefix sum -> vị trí bắt đầu của mỗi ô
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+            cellFill[c] = cellStart[c];
+        }
+        int total = cellStart[cells];
+        if (items.length < total) items = new int[Math.max(total, items.length * 2)];
+
+        // 3. Rải chỉ số vào từng ô
+        for (int i = 0; i < n; i++) {
+            int x0 = cellX(xs[i]), x1 = cellX(xs[i] + ws[i] - 1);
+            int y0 = cellY(ys[i]), y1 = cellY(ys[i] + hs[i] - 1);
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int cx = x0; cx <= x1; cx++) {
+                    items[cellFill[cy * cols + cx]++] = i;
+                }
+            }
+        }
+    }
+
+    // Cá có thể bơi ra ngoài biên (tới -200), kẹp vào ô ngoài cùng
+    public int cellX(int px) {
+        int cx = Math.floorDiv(px, CELL_SIZE);
+        return cx < 0 ? 0 : (cx >= cols ? cols - 1 : cx);
+    }
+
+    public int cellY(int py) {
+        int cy = Math.floorDiv(py, CELL_SIZE);
+        return cy < 0 ? 0 : (cy >= rows ? rows - 1 : cy);
+    }
+
+    /** true nếu ô (cx, cy) là ô "sở hữu" cặp a-b (hai hitbox đã biết là giao nhau). */
+    public boolean ownsPair(int cx, int cy, Rectangle a, Rectangle b) {
+        return ownsPair(cx, cy, a.x, a.y, b.x, b.y);
+    }
+
+    public boolean ownsPair(int cx, int cy, int ax, int ay, int bx, int by) {
+        return cellX(Math.max(ax, bx)) == cx && cellY(Math.max(ay, by)) == cy;
+    }
+
+    public int cols() { return cols; }
+    public int rows() { return rows; }
+    public int cellStart(int cell) { return cellStart[cell]; }
+    public int cellEnd(int cell) { return cellStart[cell + 1]; }
+    public int item(int slot) { return items[slot]; }
+}
@@ -0,0 +1,148 @@
+package entity;
+
+import main.World;
+
+/**
+ * Điều phối số lượng cá trong bể:
+ * - Ngân sách (budget) số cá tối đa của từng level (levels.txt, dòng budget); đủ thì không spawn.
+ * - Mật độ quanh camera: cá mới ưu tiên vào từ mép thế giới gần camera, cao độ lệch về vùng
+ *   camera đang nhìn; cá ở xa camera hoặc sống quá lâu (và không nhìn thấy) thì bị dọn đi.
+ * - Khung hình quá ngân sách thời gian thì giãn nhịp spawn và hạ budget (throttle),
+ *   tắt hẳn ở chế độ deterministic để mô phỏng không phụ thuộc máy.
+ *
+ * Nhờ vậy số cá bị chặn trên và chi phí mỗi tick không tăng theo thời gian chơi.
+ */
+public class SpawnDirector {
+    public static final int SPAWN_INTERVAL = 30;        // tick giữa hai lần spawn (như cũ)
+    public static final long LIFETIME = 60 * 60;        // 60s ở 60 tick/s
+    public static final long DISTANCE_GRACE = 10 * 60;   // 10s đầu không dọn vì xa camera
+    public static final int DESPAWN_CHECK_INTERVAL = 15; // quét dọn mỗi 15 tick
+    public static final int VIEW_MARGIN = 120;          // coi như "nhìn thấy" nếu cách màn hình < 120px
+    public static final int MAX_THROTTLE = 2;
+
+    World world;
+    Rng rand;
+
+    private int spawnCounter = 0;
+    private int throttle = 0;          // 0 = bình thường; mỗi mức: nhịp spawn x2, budget -25%
+    private double frameCostAvg = 0;   // ns, trung bình trượt
+    private int cooldown = 0;          // số frame chờ trước khi đổi mức throttle tiếp
+
+    // Vị trí spawn do place() tính
+    public int spawnX, spawnY;
+    public boolean spawnRight;
+
+    // Thống kê
+    public long spawned = 0;
+    public long skippedBudget = 0;
+    public long despawnedLifetime = 0;
+    public long despawnedDistance = 0;
+
+    public SpawnDirector(World world, Rng rand) {
+        this.world = world;
+        this.rand = rand;
+    }
+
+    public void reset() {
+        spawnCounter = 0;
+    }
+
+    /** Số cá tối đa hiện tại (budget của level, đã trừ throttle). */
+    public int budget() {
+        int base = world.currentLevel.def.budget;
+        return Math.max(4, base * (4 - throttle) / 4);
+    }
+
+    public int throttle() {
+        return throttle;
+    }
+
+    /** Gọi mỗi tick; true nếu tick này nên spawn một con. */
+    public boolean shouldSpawn(int population) {
+        spawnCounter++;
+        if (spawnCounter <= SPAWN_INTERVAL << throttle) return false;
+        spawnCounter = 0;
+        if (population >= budget()) {
+            skippedBudget++;
+            return false;
+        }
+        spawned++;
+        return true;
+    }
+
+    /** Chọn mép vào + cao độ cho một con loài type, kết quả ở spawnX / spawnY / spawnRight. */
+    public void place(MonsterType type) {
+        int ww = world.worldWidth, wh = world.worldHeight;
+        // Mép trái càng gần camera thì càng hay được chọn
+        double camCenter = world.cameraX + world.screenWidth / 2.0;
+        spawnRight = rand.nextDouble() >= camCenter / ww; // spawnRight = vào từ mép trái, bơi sang phải
+        spawnX = spawnRight ? -type.width : ww;
+
+        int maxY = Math.max(1, wh - type.height);
+        if (rand.nextInt(4) != 0) {
+            // 75%: trong dải cao độ camera đang nhìn (nới thêm VIEW_MARGIN)
+            int top = Math.max(0, world.cameraY - VIEW_MARGIN);
+            int bottom = Math.min(maxY, world.cameraY + world.screenHeight + VIEW_MARGIN - type.height);
+            spawnY = bottom > top ? top + rand.nextInt(bottom - top) : rand.nextInt(maxY);
+        } else {
+            spawnY = rand.nextInt(maxY);
+        }
+    }
+
+    /** Tick này có quét dọn không. */
+    public boolean despawnCheckDue() {
+        return world.tickCount % DESPAWN_CHECK_INTERVAL == 0;
+    }
+
+    /** Con cá ở (x, y, w, h) sinh ra ở tick spawnTick có nên bị dọn không. */
+    public boolean shouldDespawn(int x, int y, int w, int h, long spawnTick) {
+        int camX = world.cameraX, camY = world.cameraY;
+        int sw = world.screenWidth, sh = world.screenHeight;
+        // Đang (gần) nhìn thấy thì không bao giờ biến mất trước mắt người chơi
+        if (x + w > camX - VIEW_MARGIN && x < camX + sw + VIEW_MARGIN
+                && y + h > camY - VIEW_MARGIN && y < camY + sh + VIEW_MARGIN) {
+            return false;
+        }
+        if (world.tickCount - spawnTick > LIFETIME) {
+            despawnedLifetime++;
+            return true;
+        }
+        // Con mới vào từ mép xa vẫn được bơi một lúc về phía camera
+        if (world.tickCount - spawnTick < DISTANCE_GRACE) return false;
+        long dx = (x + w / 2) - (camX + sw / 2);
+        long dy = (y + h / 2) - (camY + sh / 2);
+        long far = sw; // xa hơn một bề ngang màn hình tính từ tâm camera
+        if (dx * dx + dy * dy > far * far) {
+            despawnedDistance++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * View báo thời gian xử lý một khung hình (update + vẽ) so với ngân sách khung hình.
+     * Vượt ngân sách thì tăng throttle, thừa nhiều thì hạ dần. Bỏ qua khi deterministic.
+     */
+    public void reportFrameTime(long costNanos, long budgetNanos) {
+        if (world.deterministic) return;
+        frameCostAvg = frameCostAvg == 0 ? costNanos : frameCostAvg * 0.9 + costNanos * 0.1;
+        if (cooldown > 0) {
+            cooldown--;
+            return;
+        }
+        if (frameCostAvg > budgetNanos && throttle < MAX_THROTTLE) {
+            throttle++;
+            cooldown = 60;
+        } else if (frameCostAvg < budgetNanos * 0.6 && throttle > 0) {
+            throttle--;
+            cooldown = 120;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SpawnDirector[budget=" + budget() + ", throttle=" + throttle + ", spawned=" + spawned
+                + ", skippedBudget=" + skippedBudget + ", despawnedLifetime=" + despawnedLifetime
+                + ", despawnedDistance=" + despawnedDistance + "]";
+    }
+}
@@ -0,0 +1,93 @@
+package input;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import main.World;
+
+/**
+ * Ghi input của từng tick ra file nhị phân để phát lại y hệt (InputReplayer).
+ *
+ * Định dạng (DataOutputStream, big-endian):
+ *   header: int MAGIC, short VERSION, long seed, short screenW, short screenH, boolean soa
+ *   mỗi tick: byte flags
+ *     MOUSE  -> short mouseX, short mouseY       (chỉ khi chuột đổi so với tick trước)
+ *     EVENTS -> byte n, n x (byte type, short a, short b)
+ *     HASH   -> int World.stateHash()            (mỗi HASH_INTERVAL tick, để phát hiện lệch)
+ *   kết thúc: byte END, long số tick
+ *
+ * Tick không có gì mới chỉ tốn 1 byte (~3.6 KB mỗi phút đứng yên).
+ */
+public class InputRecorder {
+    public static final int MAGIC = 0x46495348; // "FISH"
+    public static final short VERSION = 2; // 2: seed dùng cho WorldRandom (SplitMix64)
+    public static final int MOUSE = 1, EVENTS = 2, HASH = 4, END = 0x80;
+    public static final int HASH_INTERVAL = 60;
+
+    private final DataOutputStream out;
+    private final String path;
+    private int lastX = Integer.MIN_VALUE, lastY = Integer.MIN_VALUE;
+    private long ticks = 0;
+    private boolean closed = false;
+
+    public InputRecorder(String path, long seed, int screenW, int screenH, boolean soa) throws IOException {
+        this.path = path;
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(seed);
+        out.writeShort(screenW);
+        out.writeShort(screenH);
+        out.writeBoolean(soa);
+        // Đóng file cả khi thoát bằng nút Exit / System.exit
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "input-recorder-close"));
+    }
+
+    /** Ghi input của một tick; gọi ngay trước World.update. */
+    public synchronized void record(InputState input, World world) {
+        if (closed) return;
+        try {
+            boolean moved = input.mouseX != lastX || input.mouseY != lastY;
+            boolean hash = ticks % HASH_INTERVAL == 0;
+            int flags = (moved ? MOUSE : 0) | (input.eventCount > 0 ? EVENTS : 0) | (hash ? HASH : 0);
+            out.writeByte(flags);
+            if (moved) {
+                out.writeShort(input.mouseX);
+                out.writeShort(input.mouseY);
+                lastX = input.mouseX;
+                lastY = input.mouseY;
+            }
+            if (input.eventCount > 0) {
+                out.writeByte(input.eventCount);
+                for (int i = 0; i < input.eventCount; i++) {
+                    out.writeByte(input.eventType[i]);
+                    out.writeShort(input.eventA[i]);
+                    out.writeShort(input.eventB[i]);
+                }
+            }
+            if (hash) out.writeInt(world.stateHash());
+            ticks++;
+        } catch (IOException e) {
+            System.err.println("Input recording stopped: " + e.getMessage());
+            closed = true;
+        }
+    }
+
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            out.writeByte(END);
+            out.writeLong(ticks);
+            out.close();
+            System.out.println("[record] " + ticks + " ticks -> " + path);
+        } catch (IOException e) {
+            System.err.println("Error closing recording: " + path);
+        }
+    }
+
+    public long ticks() {
+        return ticks;
+    }
+}
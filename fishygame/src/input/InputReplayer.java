@@ -0,0 +1,136 @@
+package input;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import main.World;
+
+/**
+ * Đọc file của InputRecorder và trả lại input từng tick. Mỗi HASH_INTERVAL tick so
+ * World.stateHash() với giá trị đã ghi; lần lệch đầu tiên được giữ ở firstDivergence
+ * (so sánh hai bản build, hoặc phát hiện chỗ mô phỏng còn phụ thuộc thứ ngoài input).
+ */
+public class InputReplayer {
+    public final long seed;
+    public final int screenWidth, screenHeight;
+    public final boolean soa;
+
+    private final DataInputStream in;
+    private final String path;
+    private int mouseX, mouseY;
+    // Event của tick đang đọc; chỉ đổ vào InputState khi đọc trọn tick
+    private final int[] eventType = new int[255], eventA = new int[255], eventB = new int[255];
+    private boolean finished = false;
+
+    public long ticks = 0;
+    public long hashesChecked = 0;
+    public long firstDivergence = -1; // tick lệch đầu tiên, -1 nếu khớp
+    public long recordedTicks = -1;   // số tick ghi ở cuối file, -1 nếu file bị cắt
+
+    public InputReplayer(String path) throws IOException {
+        this.path = path;
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16));
+        if (in.readInt() != InputRecorder.MAGIC) throw new IOException(path + ": not an input recording");
+        short version = in.readShort();
+        if (version != InputRecorder.VERSION) throw new IOException(path + ": unsupported version " + version);
+        seed = in.readLong();
+        screenWidth = in.readShort();
+        screenHeight = in.readShort();
+        soa = in.readBoolean();
+    }
+
+    /**
+     * Đổ input của tick kế tiếp vào input (ghi đè chuột và event).
+     * Gọi ngay trước World.update (cùng chỗ InputRecorder.record).
+     * @return false nếu đã hết file; khi đó input không bị đụng tới (kể cả file bị cắt giữa tick)
+     */
+    public boolean next(InputState input, World world) {
+        if (finished) return false;
+        try {
+            int flags = in.readUnsignedByte();
+            if (flags == InputRecorder.END) {
+                recordedTicks = in.readLong();
+                return finish();
+            }
+            int mx = mouseX, my = mouseY;
+            if ((flags & InputRecorder.MOUSE) != 0) {
+                mx = in.readShort();
+                my = in.readShort();
+            }
+            int n = 0;
+            if ((flags & InputRecorder.EVENTS) != 0) {
+                n = in.readUnsignedByte();
+                for (int i = 0; i < n; i++) {
+                    eventType[i] = in.readUnsignedByte();
+                    eventA[i] = in.readShort();
+                    eventB[i] = in.readShort();
+                }
+            }
+            int expected = (flags & InputRecorder.HASH) != 0 ? in.readInt() : 0;
+
+            // Đã đọc trọn tick: giờ mới ghi đè input
+            mouseX = mx;
+            mouseY = my;
+            input.mouseX = mx;
+            input.mouseY = my;
+            input.eventCount = 0;
+            for (int i = 0; i < n; i++) input.addEvent(eventType[i], eventA[i], eventB[i]);
+            if ((flags & InputRecorder.HASH) != 0) {
+                hashesChecked++;
+                if (expected != world.stateHash() && firstDivergence < 0) {
+                    firstDivergence = ticks;
+                    System.err.println("[replay] state diverged from recording at tick " + ticks);
+                }
+            }
+            ticks++;
+            return true;
+        } catch (EOFException e) {
+            return finish(); // file bị cắt (game bị kill), phát tới đó thôi
+        } catch (IOException e) {
+            System.err.println("Error reading recording: " + path);
+            return finish();
+        }
+    }
+
+    /**
+     * Còn tick nào để phát không; gặp dấu kết thúc thì đọc luôn (recordedTicks) và đóng file.
+     * Dùng khi không muốn chạy thêm tick nào bằng input thật sau khi hết file (ReplayRunner).
+     */
+    public boolean hasNext() {
+        if (finished) return false;
+        try {
+            in.mark(1);
+            int flags = in.read();
+            if (flags < 0) return finish();
+            if (flags == InputRecorder.END) {
+                recordedTicks = in.readLong();
+                return finish();
+            }
+            in.reset();
+            return true;
+        } catch (IOException e) {
+            return finish();
+        }
+    }
+
+    private boolean finish() {
+        finished = true;
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+        return false;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public String toString() {
+        return "replay " + path + ": ticks=" + ticks + " hashes=" + hashesChecked
+                + (firstDivergence < 0 ? " (match)" : " DIVERGED at tick " + firstDivergence);
+    }
+}
@@ -0,0 +1,57 @@
+package input;
+
+/**
+ * Trạng thái input được lấy mẫu một lần mỗi bước mô phỏng.
+ * Không phụ thuộc AWT, World đọc từ đây thay vì đọc trực tiếp MouseHandler.
+ *
+ * Phím / click không đổi trạng thái game ngay trên EDT nữa: handler gọi post(), đầu mỗi tick
+ * latch() chuyển chúng sang danh sách event của tick đó và GamePanel xử lý trên game thread.
+ * Nhờ vậy mỗi tick có đúng một bộ input (chuột + event) để ghi / phát lại (InputRecorder).
+ */
+public class InputState {
+    public static final int KEY = 1;    // a = key code
+    public static final int CLICK = 2;  // a, b = tọa độ màn hình
+    public static final int MAX_EVENTS = 16; // mỗi tick; quá thì bỏ (người không bấm nhanh thế)
+
+    // Tọa độ chuột trên màn hình (screen space)
+    public int mouseX, mouseY;
+
+    // Event của tick hiện tại (chỉ game thread đọc / ghi)
+    public int eventCount;
+    public final int[] eventType = new int[MAX_EVENTS];
+    public final int[] eventA = new int[MAX_EVENTS];
+    public final int[] eventB = new int[MAX_EVENTS];
+
+    // Event do EDT gửi, chờ tick kế tiếp
+    private int pendingCount;
+    private final int[] pendingType = new int[MAX_EVENTS];
+    private final int[] pendingA = new int[MAX_EVENTS];
+    private final int[] pendingB = new int[MAX_EVENTS];
+
+    /** Gọi từ EDT (KeyHandler / MouseHandler). */
+    public synchronized void post(int type, int a, int b) {
+        if (pendingCount == MAX_EVENTS) return;
+        pendingType[pendingCount] = type;
+        pendingA[pendingCount] = a;
+        pendingB[pendingCount] = b;
+        pendingCount++;
+    }
+
+    /** Đầu tick: event đang chờ thành event của tick này. */
+    public synchronized void latch() {
+        System.arraycopy(pendingType, 0, eventType, 0, pendingCount);
+        System.arraycopy(pendingA, 0, eventA, 0, pendingCount);
+        System.arraycopy(pendingB, 0, eventB, 0, pendingCount);
+        eventCount = pendingCount;
+        pendingCount = 0;
+    }
+
+    /** Thêm event trực tiếp vào tick hiện tại (InputReplayer, game thread). */
+    public void addEvent(int type, int a, int b) {
+        if (eventCount == MAX_EVENTS) return;
+        eventType[eventCount] = type;
+        eventA[eventCount] = a;
+        eventB[eventCount] = b;
+        eventCount++;
+    }
+}
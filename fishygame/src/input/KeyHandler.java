@@ -16,13 +16,25 @@ public class KeyHandler extends KeyAdapter {
     public void keyPressed(KeyEvent e) {
         int code = e.getKeyCode();
         
+        // F3: bật/tắt bảng hiệu năng (chỉ là phần vẽ, xử lý ngay)
+        if (code == KeyEvent.VK_F3) {
+            gp.perfOverlay.toggle();
+            return;
+        }
+
+        // Phím ảnh hưởng tới game: xếp hàng, xử lý ở đầu tick kế tiếp (apply)
+        gp.world.input.post(InputState.KEY, code, 0);
+    }
+
+    /** Xử lý một phím trên game thread (từ bàn phím thật hoặc từ file phát lại). */
+    public void apply(int code) {
         // Xử lý phím M (Menu/Pause)
         if (code == KeyEvent.VK_M) {
-            if (gp.gameState == gp.playState) {
-                gp.gameState = gp.pauseState; // Đang chơi -> Pause
-            } else if (gp.gameState == gp.pauseState) {
-                gp.gameState = gp.playState; // Đang Pause -> Chơi tiếp
+            if (gp.world.gameState == gp.world.playState) {
+                gp.world.gameState = gp.world.pauseState; // Đang chơi -> Pause
+            } else if (gp.world.gameState == gp.world.pauseState) {
+                gp.world.gameState = gp.world.playState; // Đang Pause -> Chơi tiếp
             }
         }
     }
-}
\ No newline at end of file
+}
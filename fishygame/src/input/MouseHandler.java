@@ -20,7 +20,7 @@ public class MouseHandler extends MouseAdapter {
         mouseY = e.getY();
         
         // >> LOGIC CHECK HOVER CHO MENU
-        if (gp.gameState == gp.pauseState || gp.gameState == gp.gameOverState) {
+        if (gp.world.gameState == gp.world.pauseState || gp.world.gameState == gp.world.gameOverState) {
             // Kiểm tra New Game
             if (gp.newGameRect != null && gp.newGameRect.contains(mouseX, mouseY)) {
                 gp.commandNum = 0; // Đang chọn New Game
@@ -48,15 +48,19 @@ public class MouseHandler extends MouseAdapter {
     // --- XỬ LÝ CLICK ---
     @Override
     public void mouseClicked(MouseEvent e) {
-        if (gp.gameState == gp.pauseState || gp.gameState == gp.gameOverState) {
-            int mx = e.getX();
-            int my = e.getY();
-            
+        // Xếp hàng, xử lý ở đầu tick kế tiếp (applyClick)
+        gp.world.input.post(InputState.CLICK, e.getX(), e.getY());
+    }
+
+    /** Xử lý một click trên game thread (từ chuột thật hoặc từ file phát lại). */
+    public void applyClick(int mx, int my) {
+        if (gp.world.gameState == gp.world.pauseState || gp.world.gameState == gp.world.gameOverState) {
             if (gp.newGameRect != null && gp.newGameRect.contains(mx, my)) {
                 gp.resetGame();
                 System.out.println("DEBUG: Click New Game");
             }
             else if (gp.exitRect != null && gp.exitRect.contains(mx, my)) {
+                if (gp.replayer != null) return; // đang phát lại: click Exit chỉ là hết phiên ghi
                 System.out.print("DEBUG: Click Exit");
                 System.exit(0);
             }
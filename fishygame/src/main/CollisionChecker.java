@@ -1,15 +1,18 @@
 package main;
 
 import entity.Enemy;
+import entity.EnemyRules;
+import entity.EnemyStore;
 import entity.Player;
 import java.util.ArrayList;
+import perf.PlayerCollisionEvent;
 
 public class CollisionChecker {
     
-    GamePanel gp;
+    World world;
 
-    public CollisionChecker(GamePanel gp) {
-        this.gp = gp;
+    public CollisionChecker(World world) {
+        this.world = world;
     }
 
     public void checkPlayerVsEnemies(Player player, ArrayList<Enemy> enemies) {
@@ -18,50 +21,78 @@ public class CollisionChecker {
 
         for (int i = 0; i < enemies.size(); i++) {
             Enemy enemy = enemies.get(i);
-            if (enemy == null) continue;
+            if (enemy == null || enemy.pendingRemove) continue;
 
+            enemy.updateHitbox();
 
-            int paddingX = (int)(enemy.width * 0.2); 
-            int paddingY = (int)(enemy.height * 0.2); 
+            if (player.solidArea.intersects(enemy.solidArea)) {
+                processCollision(player, enemy);
+            }
+        }
+    }
+
+    /** Cùng logic như trên nhưng duyệt thẳng trên các mảng của EnemyStore. */
+    public void checkPlayerVsStore(Player player, EnemyStore store) {
+        int pPad = 10;
+        player.solidArea.setBounds(player.x + pPad, player.y + pPad, player.width - 2*pPad, player.height - 2*pPad);
+        int px = player.solidArea.x, py = player.solidArea.y;
+        int pw = player.solidArea.width, ph = player.solidArea.height;
 
-            enemy.solidArea.setBounds(
-                enemy.x + paddingX, 
-                enemy.y + paddingY, 
-                enemy.width - 2 * paddingX, 
-                enemy.height - 2 * paddingY
-            );
+        for (int i = 0; i < store.count; i++) {
+            if (store.isPendingRemove(i)) continue;
+            int w = store.width[i], h = store.height[i];
+            int paddingX = EnemyRules.hitPad(w);
+            int paddingY = EnemyRules.hitPad(h);
+            int ex = store.x[i] + paddingX, ey = store.y[i] + paddingY;
+            int ew = w - 2 * paddingX, eh = h - 2 * paddingY;
 
-            if (player.solidArea.intersects(enemy.solidArea)) {
-                processCollision(player, enemy, i);
+            if (px < ex + ew && ex < px + pw && py < ey + eh && ey < py + ph) {
+                store.queueRemove(i);
+                resolveCollision(player, w * h, store.scoreValue(i), store.types.get(store.typeId[i]).getName());
             }
         }
     }
 
-    public void processCollision(Player player, Enemy enemy, int index) {
+    public void processCollision(Player player, Enemy enemy) {
+        // Chỉ xếp hàng xóa; Aquarium.flushRemovals() xóa thật ở cuối tick
+        world.aquarium.queueRemove(enemy);
+        resolveCollision(player, enemy.width * enemy.height, enemy.scoreValue, enemy.type.getName());
+    }
+
+    private void resolveCollision(Player player, int enemySize, int scoreValue, String species) {
         int playerSize = player.width * player.height;
-        int enemySize = enemy.width * enemy.height;
+        boolean eats = playerSize*1.5 >= enemySize/1.5;
+
+        PlayerCollisionEvent ev = new PlayerCollisionEvent();
+        if (ev.shouldCommit()) {
+            ev.species = species;
+            ev.eaten = !eats;
+            ev.playerSize = playerSize;
+            ev.enemySize = enemySize;
+            ev.score = world.score + (eats ? scoreValue : 0);
+            ev.lives = world.lives - (eats ? 0 : 1);
+            ev.commit();
+        }
 
-        if (playerSize*1.5 >= enemySize/1.5) {
+        if (eats) {
             // ĂN
-            gp.aquarium.entities.remove(index);
-            gp.score += enemy.scoreValue;
+            world.score += scoreValue;
             player.eating();
         } else {
             // BỊ ĂN
-            gp.lives--;
-            gp.aquarium.entities.remove(index); 
+            world.lives--;
             
-            System.out.println("Ouch! Lives left: " + gp.lives);
+            System.out.println("Ouch! Lives left: " + world.lives);
             
-            if (gp.lives > 0) {
+            if (world.lives > 0) {
                 // >> TRƯỜNG HỢP 1: CÒN MẠNG -> PAUSE GAME + HIỆN SORRY
-                gp.gameState = gp.respawnState; // Dừng game
-                gp.banner.show("SORRY", 180); // Hiện chữ SORRY trong 2 giây (120 frames)
+                world.gameState = world.respawnState; // Dừng game
+                world.banner.show("SORRY", 180); // Hiện chữ SORRY trong 2 giây (120 frames)
                 
             } else {
                 // >> TRƯỜNG HỢP 2: HẾT MẠNG -> GAME OVER
-                gp.gameState = gp.gameOverState;
-                gp.banner.show("YOU LOSE", -1); 
+                world.gameState = world.gameOverState;
+                world.banner.show("YOU LOSE", -1); 
                 System.out.println("GAME OVER");
             }
         }
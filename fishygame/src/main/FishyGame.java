@@ -1,12 +1,24 @@
 package main;
+import java.awt.GraphicsEnvironment;
 import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+import render.AssetManager;
 //hello
 public class FishyGame  {
     public static void main(String[] args) {
+        StartupMetrics.mainStarted();
+        // Xếp hàng decode toàn bộ ảnh song song: ảnh menu trước, phần chơi sau
+        AssetManager.get().preload(UI.IMAGES);
+        GamePanel.preloadAssets();
+
+        // Chạy mẫu tạo CDS archive trên máy không có màn hình
+        if (StartupMetrics.training() && GraphicsEnvironment.isHeadless()) {
+            TrainingRun.runHeadless(StartupMetrics.TRAINING_SECONDS);
+            return;
+        }
+
         JFrame window = new JFrame("Fishy Game");
-        GamePanel gamePanel = new GamePanel();// bảng vẽ và xử lý logic
-        
-        UI menu = new UI(window, gamePanel);
+        UI menu = new UI(window); // chỉ chờ ảnh của menu
         window.add(menu);
         
         window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -15,6 +27,11 @@ public class FishyGame  {
         window.setLocationRelativeTo(null);// hiển thị cửa sổ ở giữa màn hình
         
         window.setVisible(true);
-        
+
+        // Menu đã hiện (có thanh loading); tạo phần chơi trong lúc các ảnh còn lại đang decode
+        GamePanel gamePanel = new GamePanel();// bảng vẽ và xử lý logic
+        menu.setGamePanel(gamePanel);
+        // Chạy mẫu / phát lại input (-Dfishy.replay) thì vào game luôn, không chờ bấm menu
+        if (StartupMetrics.training() || gamePanel.replayer != null) SwingUtilities.invokeLater(menu::startGame);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package main;
+
+/**
+ * Bộ hẹn giờ khung hình kiểu "sleep rồi spin":
+ * ngủ bằng Thread.sleep tới gần mốc thời gian, phần còn lại thì chờ bận (spin)
+ * để bù cho độ phân giải thô của Thread.sleep.
+ * Đồng thời ghi lại độ lệch (jitter) giữa thời điểm thức dậy thực tế và mốc mong muốn.
+ */
+public class FrameTimer {
+
+    // Khoảng thời gian cuối cùng sẽ spin thay vì sleep (2ms)
+    private final long spinThreshold;
+
+    // --- JITTER STATISTICS ---
+    private long samples = 0;
+    private double meanJitter = 0;   // ns
+    private double m2Jitter = 0;     // tổng bình phương độ lệch (Welford)
+    private long maxJitter = 0;      // ns
+    private long lastJitter = 0;     // ns
+
+    public FrameTimer() {
+        this(2_000_000L);
+    }
+
+    public FrameTimer(long spinThresholdNanos) {
+        this.spinThreshold = spinThresholdNanos;
+    }
+
+    /**
+     * Chờ tới thời điểm deadline (theo System.nanoTime) rồi trả về thời điểm thức dậy.
+     * Nếu đã trễ hạn thì trả về ngay.
+     */
+    public long waitUntil(long deadline) {
+        long now = System.nanoTime();
+        long remaining = deadline - now;
+
+        // 1. Sleep phần lớn thời gian, chừa lại một khoảng để spin
+        if (remaining > spinThreshold) {
+            try {
+                long sleepNanos = remaining - spinThreshold;
+                Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // 2. Spin đoạn cuối cho chính xác
+        now = System.nanoTime();
+        while (now < deadline) {
+            Thread.onSpinWait();
+            now = System.nanoTime();
+        }
+
+        record(now - deadline);
+        return now;
+    }
+
+    private void record(long jitter) {
+        lastJitter = jitter;
+        if (jitter > maxJitter) maxJitter = jitter;
+        samples++;
+        double delta = jitter - meanJitter;
+        meanJitter += delta / samples;
+        m2Jitter += delta * (jitter - meanJitter);
+    }
+
+    public void resetStats() {
+        samples = 0;
+        meanJitter = 0;
+        m2Jitter = 0;
+        maxJitter = 0;
+        lastJitter = 0;
+    }
+
+    public long getSamples() { return samples; }
+    public double getMeanJitterMillis() { return meanJitter / 1_000_000.0; }
+    public double getMaxJitterMillis() { return maxJitter / 1_000_000.0; }
+    public double getLastJitterMillis() { return lastJitter / 1_000_000.0; }
+
+    public double getJitterStdDevMillis() {
+        if (samples < 2) return 0;
+        return Math.sqrt(m2Jitter / (samples - 1)) / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("jitter mean=%.3fms sd=%.3fms max=%.3fms (n=%d)",
+                getMeanJitterMillis(), getJitterStdDevMillis(), getMaxJitterMillis(), samples);
+    }
+}
@@ -1,11 +1,15 @@
 package main;
 
-import entity.Aquarium;
-import entity.Banner;
+import entity.MonsterRegistry;
 import entity.Player;
+import input.InputRecorder;
+import input.InputReplayer;
+import input.InputState;
 import input.KeyHandler;
 import input.MouseHandler;
 import java.awt.AlphaComposite;
+import java.awt.BorderLayout;
+import java.awt.Canvas;
 import java.awt.Color;
 import java.awt.Composite;
 import java.awt.Cursor;
@@ -13,45 +17,38 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import javax.imageio.ImageIO;
 import javax.swing.JPanel;
-
-public class GamePanel extends JPanel implements Runnable {
-    // --- 1. SCREEN & WORLD SETTINGS ---
-    public final int screenWidth = 780;
-    public final int screenHeight = 640;
-    public int worldWidth = 1280;
-    public int worldHeight = 960;
+import perf.FrameProfiler;
+import perf.GameTickEvent;
+import perf.Phase;
+import perf.PerfOverlay;
+import render.AssetManager;
+import render.BackgroundLayer;
+import render.GlyphAtlas;
+import render.HudLayer;
+
+public class GamePanel extends JPanel implements Runnable, WorldListener {
+    // --- 1. SCREEN SETTINGS ---
+    public static final int SCREEN_WIDTH = 780;
+    public static final int SCREEN_HEIGHT = 640;
+    public final int screenWidth = SCREEN_WIDTH;
+    public final int screenHeight = SCREEN_HEIGHT;
     public final int originalTileSize = 16;
     public final int scale = 2;
     public final int tileSize = originalTileSize * scale; 
 
-    // --- 2. CAMERA ---
-    public int cameraX = 0;
-    public int cameraY = 0;
-
-    // --- 3. GAME STATE ---
-    public int gameState ; // quyết định game đang ở màn hình nào
-    public final int playState = 1;// đang chơi
-    public final int gameOverState = 2;// thua
-    public final int winState = 3;// vinner
-    public final int pauseState = 4;// tạm dừng
-    public final int respawnState = 5;
-    
-    // --- 4. DATA ---
-    public Level currentLevel;
-    public boolean startBannerShown = false; 
-    public boolean isGameOverBannerActive = false; // Thêm biến này vào GamePanel
-    public int score = 0;
-    public int lives = 3;
+    // --- 2. WORLD (toàn bộ trạng thái game nằm trong World, GamePanel chỉ vẽ) ---
+    public World world;
 
     // --- 5. MENU ASSETS & LOGIC ---
-    public BufferedImage menuBg, btnNewGame, btnNewGame2, btnExit2 , btnExit, playerIcon, npc1, npc2, npc3, hudBackground ;
+    public BufferedImage menuBg, btnNewGame, btnNewGame2, btnExit2 , btnExit, playerIcon, hudBackground ;
 
     
     public int menuX, menuY;
@@ -64,28 +61,58 @@ public class GamePanel extends JPanel implements Runnable {
     private int menuTick = 0;   // Đếm thời gian để tạo sóng
 
     // --- 6. SYSTEM ---
-    int FPS = 60;
-    public BufferedImage background;
-    public BufferedImage background2;
-    public BufferedImage background3;
+    int FPS = 60;        // tốc độ vẽ
+    int TICK_RATE = 60;  // tốc độ mô phỏng (số lần update mỗi giây)
+    final long simStep = 1_000_000_000L / TICK_RATE;
+    final long frameInterval = 1_000_000_000L / FPS;
+    static final int MAX_CATCH_UP_STEPS = 5;
+    static final long MAX_FRAME_TIME = 250_000_000L;
+    public final FrameTimer frameTimer = new FrameTimer();
+    public long droppedSimSteps = 0;
+    // Tỉ lệ nội suy giữa trạng thái mô phỏng trước và hiện tại (0..1), dùng khi vẽ
+    public volatile double renderAlpha = 1.0;
+
+    // --- 7. ACTIVE RENDERING ---
+    // Mặc định vẽ chủ động lên Canvas/BufferStrategy ngay trong game loop.
+    // -Dfishy.render=swing: quay về repaint()/paintComponent như cũ.
+    public final boolean activeRender = !"swing".equals(System.getProperty("fishy.render"));
+    private Canvas canvas;
+    private BufferStrategy strategy;
+    public long framesPresented = 0;
+    public long lastPresentNanos = 0;      // thời điểm khung hình gần nhất thực sự được show()
+    public double presentIntervalMs = 0;   // khoảng cách trung bình (EMA) giữa 2 lần present
+    public double presentCostMs = 0;       // thời gian trung bình (EMA) của show() + sync
+    private long lastDrawNanos = 0;        // thời gian vẽ khung vừa present, không tính show() + sync
     public BufferedImage currentBackground;
+    private String currentBackgroundPath;  // ảnh nền của level đang vẽ (background trong levels.txt)
+    private final BackgroundLayer backgroundLayer = new BackgroundLayer();
+
+    // HUD: vẽ sẵn ra layer, chỉ vẽ lại khi điểm / mạng / level đổi
+    static final int HUD_HEIGHT = 120;
+    static final int HUD_TEXT_SIZE = 18;
+    private final HudLayer hudLayer = new HudLayer(screenWidth, HUD_HEIGHT);
+    private final Font hudFont = new Font("Cooper Std Black", Font.BOLD, HUD_TEXT_SIZE);
+    private final Font hudScoreFont = new Font("Cooper Std Black", Font.BOLD, HUD_TEXT_SIZE + 10);
+    private final Color hudOutline = new Color(0, 0, 0, 180);
+    private final Color hudMain = new Color(230, 255, 150, 255);
+    private final Color hudBorder = new Color(153, 204, 255, 150);
+    private final int[] triangleX = new int[3], triangleY = new int[3];
     
     // Input Handlers
     public MouseHandler mouseH;
     public KeyHandler keyH;
     Sound sound = new Sound();
+    // Bảng hiệu năng, bật/tắt bằng F3 (KeyHandler)
+    public PerfOverlay perfOverlay;
+    // Ghi / phát lại input từng tick (null nếu không dùng)
+    public InputRecorder recorder;
+    public InputReplayer replayer;
     
-    public CollisionChecker cChecker = new CollisionChecker(this);
-    public Banner banner; 
     Thread gameThread;
     
     // Cursor Management
     private Cursor blankCursor;   
     private Cursor defaultCursor; 
-    
-    // --- 7. ENTITIES ---
-    public Player player;
-    public Aquarium aquarium;
 
     public GamePanel() {
         this.setPreferredSize(new Dimension(screenWidth, screenHeight));
@@ -96,29 +123,46 @@ public class GamePanel extends JPanel implements Runnable {
         // Init Input Handlers
         mouseH = new MouseHandler(this);
         keyH = new KeyHandler(this);
-        this.addMouseListener(mouseH);
-        this.addMouseMotionListener(mouseH);
-        this.addKeyListener(keyH);
-        
-        currentLevel = new Level(1); // bắt đầu ở màn 1
-        gameState = playState;
+        if (activeRender) {
+            // Canvas (heavyweight) phủ kín panel, nhận input thay cho panel
+            canvas = new Canvas();
+            canvas.setPreferredSize(new Dimension(screenWidth, screenHeight));
+            canvas.setIgnoreRepaint(true);
+            canvas.setFocusable(true);
+            canvas.addMouseListener(mouseH);
+            canvas.addMouseMotionListener(mouseH);
+            canvas.addKeyListener(keyH);
+            this.setLayout(new BorderLayout());
+            this.add(canvas, BorderLayout.CENTER);
+            this.setIgnoreRepaint(true);
+        } else {
+            this.addMouseListener(mouseH);
+            this.addMouseMotionListener(mouseH);
+            this.addKeyListener(keyH);
+        }
 
         // Init Cursors
         defaultCursor = Cursor.getDefaultCursor();
-        BufferedImage cursorImg = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
-        blankCursor = Toolkit.getDefaultToolkit().createCustomCursor(cursorImg, new Point(0, 0), "blank cursor");
+        if (GraphicsEnvironment.isHeadless()) {
+            // Headless (benchmark, CI): không tạo được cursor tùy biến
+            blankCursor = defaultCursor;
+        } else {
+            BufferedImage cursorImg = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+            blankCursor = Toolkit.getDefaultToolkit().createCustomCursor(cursorImg, new Point(0, 0), "blank cursor");
+        }
         this.setCursor(blankCursor); // Mặc định ẩn
 
         // Load & Setup
         loadResources();
         setupMenuPositions();
         
-        // Init Entities
-        player = new Player(this, mouseH);
-        aquarium = new Aquarium(this);
-        
-        banner = new Banner(this);
-        banner.show("LEVEL 1", 180);// hiển thị dòng chữ level 1 trong vòng 180 frame (3s)
+        // Init World (player, aquarium, banner...)
+        world = new World(screenWidth, screenHeight, false);
+        world.listener = this;
+        perfOverlay = new PerfOverlay(world.profiler);
+        perfOverlay.frameBudgetNanos = frameInterval;
+        if (System.getProperty("fishy.replay") != null) startReplay(System.getProperty("fishy.replay"));
+        else if (System.getProperty("fishy.record") != null) startRecording(System.getProperty("fishy.record"));
 
         this.setPreferredSize(new Dimension(screenWidth, screenHeight));
         this.setBackground(Color.black);
@@ -126,25 +170,41 @@ public class GamePanel extends JPanel implements Runnable {
         
         // Rất quan trọng: Phải gọi hàm này để các Rect không bị null
         setupMenuPositions();
+        // Nhạc nền bật đúng một lần (setupMenuPositions được gọi 2 lần ở trên)
+        playMusic(0);
+    }
+
+    // Ảnh riêng của GamePanel (menu pause, HUD); ảnh nền từng level lấy từ levels.txt
+    static final String[] IMAGES = {
+        "/res/screen/openAndPause.png", "/res/screen/newgame.png", "/res/screen/newgame2.png",
+        "/res/screen/exit.png", "/res/screen/exit2.png", "/res/angelfish/angelfishidle1.png",
+        "/res/screen/menuOcean3.jpg", "/res/animation/up.png"
+    };
+
+    /** Xếp hàng decode mọi ảnh cần cho phần chơi (GamePanel, player, cá các level, chữ banner). */
+    public static void preloadAssets() {
+        AssetManager.get().preload(IMAGES);
+        AssetManager.get().preload(LevelCatalog.get().backgrounds());
+        Player.preload();
+        MonsterRegistry.preloadAll();
+        GlyphAtlas.preload();
     }
 
     private void loadResources() {
-        try {
-            menuBg = ImageIO.read(getClass().getResourceAsStream("/res/screen/openAndPause.png"));
-            btnNewGame = ImageIO.read(getClass().getResourceAsStream("/res/screen/newgame.png"));
-            btnNewGame2 = ImageIO.read(getClass().getResourceAsStream("/res/screen/newgame2.png"));
-            btnExit = ImageIO.read(getClass().getResourceAsStream("/res/screen/exit.png"));
-            btnExit2 = ImageIO.read(getClass().getResourceAsStream("/res/screen/exit2.png"));
-            playerIcon = ImageIO.read(getClass().getResourceAsStream("/res/angelfish/angelfishidle1.png"));
-            npc1 = ImageIO.read(getClass().getResourceAsStream("/res/minnow/minnowswim1.png"));
-            npc2 = ImageIO.read(getClass().getResourceAsStream("/res/surgeonfish/surgeonfishswim6.png"));
-            npc3 = ImageIO.read(getClass().getResourceAsStream("/res/lionfish/lionfishidle1.png"));
-            hudBackground = ImageIO.read(getClass().getResourceAsStream("/res/screen/menuOcean3.jpg"));
-            background = ImageIO.read(getClass().getResourceAsStream("/res/background.png"));
-            background2 = ImageIO.read(getClass().getResourceAsStream("/res/background2.png"));
-            background3 = ImageIO.read(getClass().getResourceAsStream("/res/backgroung3.png"));
-            currentBackground = background;
-        } catch (IOException e) { e.printStackTrace(); }
+        // Ảnh đã được decode song song trên AssetManager, ở đây chỉ chờ và lấy kết quả
+        AssetManager assets = AssetManager.get();
+        assets.preload(IMAGES);
+        assets.preload(LevelCatalog.get().backgrounds());
+        menuBg = assets.image("/res/screen/openAndPause.png");
+        btnNewGame = assets.image("/res/screen/newgame.png");
+        btnNewGame2 = assets.image("/res/screen/newgame2.png");
+        btnExit = assets.image("/res/screen/exit.png");
+        btnExit2 = assets.image("/res/screen/exit2.png");
+        playerIcon = assets.image("/res/angelfish/angelfishidle1.png");
+        hudBackground = assets.image("/res/screen/menuOcean3.jpg");
+        currentBackground = backgroundFor(LevelCatalog.get().level(1));
+        // Load sẵn chữ cho Banner, tránh khựng khi hiện banner lần đầu
+        GlyphAtlas.get();
     }
 
     public void setupMenuPositions() {
@@ -163,19 +223,10 @@ public class GamePanel extends JPanel implements Runnable {
         newGameRect = new Rectangle(startX, centerY - ngH/2 + 100, ngW, ngH);
         exitRect = new Rectangle(startX + ngW + gap, centerY - exH/2 + 100, exW, exH);
         gameOptionRect = new Rectangle(startX + ngW + gap, centerY - exH/2 + 200, exW, exH);
-        playMusic(0);
     }
     // khôi phục toàn bộ trò chơi về trạng thái ban 
     public void resetGame() {
-        score = 0;
-        lives = 3;
-        currentLevel = new Level(1);
-        aquarium.reset(); 
-        player.setDefaultValues();
-        banner.show("LEVEL 1", 180);
-        startBannerShown = false;
-        gameState = playState;
-        currentBackground = background;
+        world.resetGame();
     }
 
     public void startGameThread() {
@@ -185,187 +236,260 @@ public class GamePanel extends JPanel implements Runnable {
 
     @Override
     public void run() {
-        double drawInterval = 1000000000 / FPS;
-        double nextDrawTime = System.nanoTime() + drawInterval;
+        // Mô phỏng chạy theo bước cố định (fixed timestep), độc lập với tốc độ vẽ
+        long lastTime = System.nanoTime();
+        long accumulator = 0;
+        long nextFrameTime = lastTime + frameInterval;
+
         while (gameThread != null) {
-            update();
-            repaint();
-            try {
-                double remainingTime = nextDrawTime - System.nanoTime();
-                remainingTime = remainingTime / 1000000;
-                if (remainingTime < 0) remainingTime = 0;
-                Thread.sleep((long) remainingTime);
-                nextDrawTime += drawInterval;
-            } catch (InterruptedException e) { e.printStackTrace(); }
+            long now = System.nanoTime();
+            long frameTime = now - lastTime;
+            lastTime = now;
+            // Sau một lần "đứng hình" dài (debugger, swap...) không cố đuổi kịp toàn bộ
+            if (frameTime > MAX_FRAME_TIME) frameTime = MAX_FRAME_TIME;
+            accumulator += frameTime;
+
+            GameTickEvent tickEvent = new GameTickEvent(); // JFR, không ghi thì không tốn gì
+            tickEvent.begin();
+            int steps = 0;
+            while (accumulator >= simStep && steps < MAX_CATCH_UP_STEPS) {
+                update();
+                accumulator -= simStep;
+                steps++;
+            }
+            long updated = System.nanoTime();
+            // Vẫn còn tồn đọng sau số bước tối đa -> bỏ phần dư, tránh dồn ứ
+            if (accumulator >= simStep) {
+                droppedSimSteps += accumulator / simStep;
+                accumulator %= simStep;
+            }
+
+            renderAlpha = (double) accumulator / simStep;
+            if (activeRender) {
+                long presented = presentFrame();
+                // show() bị chặn gần hết một nhịp -> màn hình (vsync) đang điều nhịp,
+                // không ngủ thêm nữa mà lấy thời điểm present làm mốc cho khung sau
+                if (presented > 0 && presentCostMs * 1_000_000L > frameInterval / 2) {
+                    nextFrameTime = presented;
+                }
+            } else {
+                repaint();
+            }
+
+            tickEvent.end();
+            if (tickEvent.shouldCommit()) {
+                tickEvent.steps = steps;
+                tickEvent.updateNanos = updated - now;
+                tickEvent.paintNanos = activeRender ? System.nanoTime() - updated : -1;
+                tickEvent.entities = world.aquarium.size();
+                tickEvent.level = world.currentLevel.levelNum;
+                tickEvent.gameState = world.gameState;
+                tickEvent.commit();
+            }
+
+            // Thời gian xử lý khung này (update + vẽ, không tính show()/sync chờ vsync):
+            // quá ngân sách thì director giảm spawn
+            long work = (updated - now) + (activeRender ? lastDrawNanos : 0);
+            world.aquarium.director.reportFrameTime(work, frameInterval);
+
+            // Frame pacing: chờ tới mốc khung hình kế tiếp
+            frameTimer.waitUntil(nextFrameTime);
+            nextFrameTime += frameInterval;
+            // Nếu khung hình bị trễ quá một nhịp thì đặt lại mốc, không cộng dồn
+            long after = System.nanoTime();
+            if (nextFrameTime < after) nextFrameTime = after + frameInterval;
         }
     }
 
     public void update() {
-        // --- LOGIC CURSOR & MENU ANIMATION ---
-       banner.update();
+        // Lấy mẫu input một lần cho mỗi bước mô phỏng
+        world.input.mouseX = mouseH.mouseX;
+        world.input.mouseY = mouseH.mouseY;
+        world.input.latch();
+        // Đang phát lại thì input của tick lấy từ file, bỏ qua chuột / phím thật
+        if (replayer != null && !replayer.next(world.input, world)) {
+            System.out.println("[replay] " + replayer);
+            replayer = null; // hết file: tick này chạy luôn bằng input thật vừa latch ở trên
+        }
+        if (recorder != null) recorder.record(world.input, world);
+        applyInputEvents();
+
+        world.update();
 
-        if (gameState == playState) {
-            cChecker.checkPlayerVsEnemies(player, aquarium.entities);
+        // --- LOGIC CURSOR & MENU ANIMATION (thuần hiển thị) ---
+        if (world.gameState == world.playState) {
             if (this.getCursor() != blankCursor) this.setCursor(blankCursor);
-            player.update();
-            updateCamera();
-            aquarium.update();
-
-            // Kiểm tra chuyển màn
-            if(score >= currentLevel.winScore){
-                if (currentLevel.levelNum < 3) { // Nếu chưa phải level cuối
-                    banner.show("LEVEL COMPLETE", 180);
-                    gameState = pauseState;
-                    startBannerShown = true; 
-                    // startBannerShown = true sẽ kích hoạt nextLevel() trong đoạn logic pauseState bên dưới
-                } else {
-                    // Đã thắng Level 3
-                    gameState = winState;
-                    stopMusic();
-                }
-            }
-            
-            if(lives <= 0){
-                gameState = gameOverState;
-                isGameOverBannerActive = true; 
-                banner.show("YOU LOSE", 180);
-                stopMusic();
-            }
-            
-        }
-         if (gameState == pauseState) {
-            if(startBannerShown){
-                
-                if (!banner.isActive()) {
-                    startBannerShown = false; // Tắt đánh dấu
-                    nextLevel(); // Chuyển sang Level 2
-                }
-            } else{
+        } else if (world.gameState == world.pauseState) {
+            if (!world.startBannerShown) {
                 // ĐÂY LÀ PAUSE MENU BÌNH THƯỜNG (Nhấn ESC hoặc mất mạng)
                 if (this.getCursor() != defaultCursor) this.setCursor(defaultCursor);
                 menuTick++;
+            }
+        } else if (world.gameState == world.gameOverState) {
+            if (this.getCursor() != defaultCursor) this.setCursor(defaultCursor);
+        }
+    }
 
-                // Thoát Pause nếu là banner thông báo mất mạng (Sorry/Respawn)
-                if (!banner.isActive() && lives > 0) gameState = playState;
+    public void nextLevel() {
+        world.nextLevel();
+    }
 
-            }
-           
-        } // 4. LOGIC RESPAWN/GAMEOVER (Giữ nguyên của bạn)
-        else if (gameState == respawnState) {
-            if (!banner.isActive()) {
-                gameState = playState;
-                player.resetPosition();
-                player.enableInvincibility();
-            }
+    // Phím / click của tick này (đã xếp hàng từ EDT, hoặc đọc từ file phát lại)
+    private void applyInputEvents() {
+        InputState input = world.input;
+        for (int i = 0; i < input.eventCount; i++) {
+            if (input.eventType[i] == InputState.KEY) keyH.apply(input.eventA[i]);
+            else if (input.eventType[i] == InputState.CLICK) mouseH.applyClick(input.eventA[i], input.eventB[i]);
         }
-         
-
-       
-        else if (gameState == gameOverState) {
-          
-            if (isGameOverBannerActive) {
-                if (!banner.isActive()) {
-                    isGameOverBannerActive = false; // Sau khi xong chữ YOU LOSE, flag này tắt để hiện Menu
-                }
-            }
-            if (this.getCursor() != defaultCursor) {
-                this.setCursor(defaultCursor);
-            }
+    }
+
+    /**
+     * Ghi input từng tick ra file (-Dfishy.record=<file>). Gọi trước tick đầu tiên.
+     * Throttle spawn theo tốc độ máy bị tắt (deterministic) để file phát lại ra đúng phiên này.
+     */
+    public void startRecording(String path) {
+        try {
+            world.deterministic = true;
+            recorder = new InputRecorder(path, world.seed, screenWidth, screenHeight, world.aquarium.useStore);
+        } catch (IOException e) {
+            System.err.println("Cannot record input to " + path + ": " + e.getMessage());
         }
     }
-    // Hàm bổ trợ để code update nhìn sạch hơn
-    public void updateCamera() {
-        int marginX = 150; int marginY = 100;
-        int playerScreenX = player.x - cameraX;
-        int playerScreenY = player.y - cameraY;
-
-        if (playerScreenX < marginX) cameraX = player.x - marginX;
-        else if (playerScreenX + player.width > screenWidth - marginX) cameraX = (player.x + player.width) - (screenWidth - marginX);
-
-        if (playerScreenY < marginY) cameraY = player.y - marginY;
-        else if (playerScreenY + player.height > screenHeight - marginY) cameraY = (player.y + player.height) - (screenHeight - marginY);
-
-        if (cameraX < 0) cameraX = 0;
-        if (cameraY < 0) cameraY = 0;
-        if (cameraX > worldWidth - screenWidth) cameraX = worldWidth - screenWidth;
-        if (cameraY > worldHeight - screenHeight) cameraY = worldHeight - screenHeight;
+
+    /** Phát lại file của InputRecorder (-Dfishy.replay=<file>). Gọi trước tick đầu tiên. */
+    public void startReplay(String path) {
+        try {
+            replayer = new InputReplayer(path);
+            world.reseed(replayer.seed);
+            world.aquarium.useStore = replayer.soa;
+            world.deterministic = true;
+        } catch (IOException e) {
+            System.err.println("Cannot replay " + path + ": " + e.getMessage());
+        }
     }
-    public void nextLevel() {
-        // Tăng số Level hiện tại lên
-        int nextLvl = currentLevel.levelNum + 1;
-        if(nextLvl <= 3){
-            currentLevel = new Level(nextLvl);
-            // Tự động đổi background theo level
-            if (nextLvl == 2) currentBackground = background2;
-            if (nextLvl == 3) currentBackground = background3;
-
-            player.setDefaultValues(); 
-            player.resetPosition();
-            cameraX = 0; cameraY = 0;
-            startBannerShown = false;
-            aquarium.reset();
-            
-            banner.show("LEVEL " + nextLvl, 180);
-            gameState = playState;
-            startBannerShown = false;
-             System.out.println("Transition to Level" + currentLevel+ " successful. Score retained: " + score);
-        } else {
-            gameState = winState;
-            stopMusic();
+
+    private BufferedImage backgroundFor(LevelCatalog.LevelDef def) {
+        // Chỉ hỏi AssetManager khi đổi level, ảnh đã được preload từ lúc khởi động
+        if (!def.background.equals(currentBackgroundPath)) {
+            currentBackgroundPath = def.background;
+            currentBackground = AssetManager.get().image(def.background);
         }
-        
+        return currentBackground;
+    }
+
+    /**
+     * Vẽ một khung hình lên back buffer của BufferStrategy rồi show() ngay trong game loop.
+     * @return thời điểm (nanoTime) khung hình được đưa lên màn hình, 0 nếu chưa vẽ được
+     */
+    private long presentFrame() {
+        if (strategy == null) {
+            if (!canvas.isDisplayable()) return 0; // chưa gắn vào cửa sổ
+            canvas.createBufferStrategy(2);
+            strategy = canvas.getBufferStrategy();
+        }
+        long showStart;
+        long drawNanos = 0;
+        do {
+            do {
+                long drawStart = System.nanoTime();
+                Graphics2D g2 = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    g2.setColor(Color.black);
+                    g2.fillRect(0, 0, screenWidth, screenHeight);
+                    render(g2);
+                } finally {
+                    g2.dispose();
+                }
+                drawNanos += System.nanoTime() - drawStart;
+            } while (strategy.contentsRestored());
+            showStart = System.nanoTime();
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+        lastDrawNanos = drawNanos;
+
+        long now = System.nanoTime();
+        double cost = (now - showStart) / 1_000_000.0;
+        presentCostMs = framesPresented == 0 ? cost : presentCostMs * 0.9 + cost * 0.1;
+        if (lastPresentNanos != 0) {
+            double interval = (now - lastPresentNanos) / 1_000_000.0;
+            presentIntervalMs = framesPresented <= 1 ? interval : presentIntervalMs * 0.9 + interval * 0.1;
+        }
+        lastPresentNanos = now;
+        framesPresented++;
+        StartupMetrics.gameFramePresented();
+        return now;
+    }
+
+    @Override
+    public boolean requestFocusInWindow() {
+        // Ở chế độ active, phím/chuột đi vào Canvas
+        return activeRender ? canvas.requestFocusInWindow() : super.requestFocusInWindow();
     }
 
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
+        if (activeRender) return; // Canvas tự vẽ trong game loop
         Graphics2D g2 = (Graphics2D) g;
+        render(g2);
+        g2.dispose();
+        StartupMetrics.gameFramePresented();
+    }
 
-        // 1. Draw Background
-        if (currentBackground != null) {
-            int sx1 = cameraX; int sy1 = cameraY;
-            int sx2 = cameraX + screenWidth; int sy2 = cameraY + screenHeight;
-            if (sx2 > worldWidth) sx2 = worldWidth;
-            if (sy2 > worldHeight) sy2 = worldHeight;
-            //g2.drawImage(currentBackground, 0, 0, screenWidth, screenHeight, sx1, sy1, sx2, sy2, null);
-            g2.drawImage(currentBackground, -cameraX, -cameraY, worldWidth, worldHeight, null);
-        } else {
-            g2.setColor(new Color(0, 100, 200)); 
-            g2.fillRect(0, 0, screenWidth, screenHeight);
-        }
+    /** Vẽ toàn bộ khung hình (dùng chung cho cả active rendering và paintComponent). */
+    void render(Graphics2D g2) {
+        FrameProfiler profiler = world.profiler;
+        long renderStart = profiler.begin();
+        // Chốt hệ số nội suy cho cả khung hình này
+        world.paintAlpha = renderAlpha;
+        int cameraX = world.renderCameraX();
+        int cameraY = world.renderCameraY();
+        currentBackground = backgroundFor(world.currentLevel.def);
+
+        // 1. Draw Background (scale sẵn một lần khi đổi level, mỗi khung chỉ blit vùng camera)
+        long t = profiler.begin();
+        backgroundLayer.use(currentBackground, world.worldWidth, world.worldHeight);
+        backgroundLayer.draw(g2, cameraX, cameraY, screenWidth, screenHeight);
+        profiler.end(Phase.BACKGROUND, t);
 
         // 2. Draw Entities
-        aquarium.draw(g2);
-        player.draw(g2);
+        t = profiler.begin();
+        world.aquarium.draw(g2);
+        world.player.draw(g2);
+        profiler.end(Phase.ENTITIES, t);
+
+        t = profiler.begin();
         drawGameUI(g2);
+        profiler.end(Phase.HUD, t);
 
         // 3. Draw Overlay (Win/Lose)
         // 4. Draw Pause Menu
-        if (gameState == pauseState || gameState == winState || gameState == gameOverState)
+        if (world.gameState == world.pauseState || world.gameState == world.winState || world.gameState == world.gameOverState)
         {
             //stopMusic();
             // Cố định độ trong suốt về 1.0 (Rõ nét 100%) trước khi vẽ Menu
             g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f));
             //g2.setFont(new Font("Arial", Font.BOLD, 30));
             //g2.setColor(Color.white);
-            if (gameState == pauseState) {
+            if (world.gameState == world.pauseState) {
                 // CHỈ vẽ Menu Option nếu KHÔNG PHẢI đang trong giai đoạn chuyển màn
-                if (!startBannerShown) {
+                if (!world.startBannerShown) {
                     drawPauseScreen(g2);
                 }
             }
-            if (gameState == winState) {
+            if (world.gameState == world.winState) {
                 String text = "You Won the Game!";
                 int length = (int)g2.getFontMetrics().getStringBounds(text, g2).getWidth();
                 g2.drawString(text, screenWidth / 2 - length / 2, screenHeight / 2);
             }
-            else if(gameState == gameOverState)
+            else if(world.gameState == world.gameOverState)
             {
                 
-                if (isGameOverBannerActive) {
+                if (world.isGameOverBannerActive) {
                     // Đang chạy hiệu ứng chữ cái YOU LOSE
-                    if (!banner.isActive()) {
+                    if (!world.banner.isActive()) {
                         // Khi banner ảnh chữ cái kết thúc, mới cho phép hiện Menu thật
-                        isGameOverBannerActive = false; 
+                        world.isGameOverBannerActive = false; 
                     }
                 } else {
                         // Khi banner ảnh đã biến mất, lúc này mới vẽ bảng Menu (New Game / Exit)
@@ -376,8 +500,13 @@ public class GamePanel extends JPanel implements Runnable {
         }
 
         // 5. Draw Banner
-        banner.draw(g2);
-        g2.dispose();
+        t = profiler.begin();
+        world.banner.draw(g2);
+        profiler.end(Phase.BANNER, t);
+        profiler.end(Phase.RENDER, renderStart);
+
+        // 6. Bảng hiệu năng (F3), vẽ sau cùng và không tính vào RENDER
+        perfOverlay.draw(g2, world, 8, HUD_HEIGHT + 8);
     }
     
     private void drawPauseScreen(Graphics2D g2) {
@@ -459,48 +588,36 @@ public class GamePanel extends JPanel implements Runnable {
     }
 
     public void drawGameUI(Graphics2D g2) {
+        // Chỉ vẽ lại HUD khi dữ liệu đổi, còn lại chỉ blit layer
+        if (hudLayer.update(world.score, world.lives, world.currentLevel.levelNum, world.currentLevel)) {
+            Graphics2D hg = hudLayer.beginRedraw();
+            renderHud(hg);
+            hg.dispose();
+        }
+        hudLayer.draw(g2, 0, 0);
+    }
+
+    // Vẽ toàn bộ HUD vào layer (toạ độ trong layer trùng toạ độ màn hình)
+    private void renderHud(Graphics2D g2) {
         
         // --- 1. THIẾT LẬP THÔNG SỐ VÀ VẼ NỀN THANH HUD ---
-        final int HUD_HEIGHT = 120;
         final int HUD_WIDTH = screenWidth;
         final int HUD_Y = 0;
-        final int TEXT_SIZE = 18;
         final int TEXT_Y_MAIN = HUD_Y + 55;
         final int TEXT_Y_SUB = HUD_Y + 95;
-        final Color FONT_OUTLINE = new Color(0, 0, 0, 180);
-        final Color FONT_MAIN = new Color(230, 255, 150, 255);;
-        int npc2Score = 0;
-        int npc3Score = 0;
-        BufferedImage currentNpc2 = null, currentNpc3 = null, currentNpc1=null;
-
-        if (currentLevel.levelNum == 1) {
-            npc2Score = 300;
-            npc3Score = 900;
-            currentNpc1 = npc1;
-            currentNpc2 = npc2; // Cá Surgeonfish (Level 1)
-            currentNpc3 = npc3; // Cá Lionfish (Level 1)
-        } else if (currentLevel.levelNum == 2) {
-            // Mốc điểm cho Level 2 (Ví dụ: cần 3000 và 4500 để tiến hóa)
-            npc2Score = 2400; 
-            npc3Score = 3600;
-            currentNpc2 = currentLevel.monsterTypes.get(1).swimFrames[0]; // Cá Angler
-            currentNpc3 = currentLevel.monsterTypes.get(2).swimFrames[0];
-            currentNpc1 = currentLevel.monsterTypes.get(0).swimFrames[0];
-        } else if (currentLevel.levelNum == 3){
-            // Mốc điểm cho Level 2 (Ví dụ: cần 3000 và 4500 để tiến hóa)
-            npc2Score = 5500; 
-            npc3Score = 7500;
-            currentNpc2 = currentLevel.monsterTypes.get(1).swimFrames[0]; // Cá Angler
-            currentNpc3 = currentLevel.monsterTypes.get(2).swimFrames[0];
-            currentNpc1 = currentLevel.monsterTypes.get(0).swimFrames[0];
-        }
+        final Color FONT_OUTLINE = hudOutline;
+        final Color FONT_MAIN = hudMain;
+        // Icon + mốc tiến hóa lấy từ định nghĩa level (levels.txt): icon đầu là loài đầu roster
+        LevelCatalog.LevelDef def = world.currentLevel.def;
+        BufferedImage firstIcon = world.currentLevel.monsterTypes.get(0).icon();
+
         // VẼ NỀN THANH HUD (GIẢ ĐỊNH)
         g2.drawImage(hudBackground, 0, HUD_Y, screenWidth, HUD_HEIGHT, null);
         
         // Đường viền (tùy chọn)
-        g2.setColor(new Color(153, 204, 255, 150));
+        g2.setColor(hudBorder);
         g2.fillRect(0, HUD_Y + HUD_HEIGHT - 3, screenWidth, 3);
-        g2.setFont(new Font("Cooper Std Black", Font.BOLD, TEXT_SIZE));
+        g2.setFont(hudFont);
         
 
         // --- 2. VẼ CÁC THÀNH PHẦN CHÍNH (TEXT VÀ VỊ TRÍ) ---
@@ -513,7 +630,6 @@ public class GamePanel extends JPanel implements Runnable {
         // B. NPC ICONS (npc1, npc2, npc3)
         final int NPC_BASE_WIDTH = 50;  // Chiều rộng cơ sở (ngang)
         final int NPC_BASE_HEIGHT = 40; // Chiều cao cơ sở (dọc)
-        final int NPC_GAP = 15; 
         int currentNpcX = x + 40;
         
         // 1. NPC1 (Cá nhỏ nhất)
@@ -521,49 +637,30 @@ public class GamePanel extends JPanel implements Runnable {
         final int size1_H = NPC_BASE_HEIGHT;
         final int npcY1 = TEXT_Y_MAIN - size1_H + 10;
          // npcY1 chỉ tọa độ y bên trái của cá npc1
-        if (npc1 != null) g2.drawImage(currentNpc1, currentNpcX, npcY1, size1_W, size1_H, null);
-        currentNpcX = 135 + (int)((int)(HUD_WIDTH * 0.5) * ((double)npc2Score / currentLevel.winScore)) + 20;
+        if (firstIcon != null) g2.drawImage(firstIcon, currentNpcX, npcY1, size1_W, size1_H, null);
         
-        // 2. NPC2 
+        // 2. Icon từng mốc tiến hóa, đặt theo vị trí mốc trên thanh GROWTH, mốc sau to hơn
         Composite originalComposite1 = g2.getComposite();
-        final int size2_W = (int)(NPC_BASE_WIDTH * 1.4);
-        final int size2_H = (int)(NPC_BASE_HEIGHT * 1.3);
-        final int npcY2 = TEXT_Y_MAIN - size2_H + 15 ; 
-        if (score < npc2Score) {
-            // Nếu điểm chưa đạt mốc 300: VẼ MỜ (30% Opacity)
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.3f));
-        } else {
-            // Nếu điểm đã đạt: VẼ SÁNG (100% Opacity)
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f));
+        for (int k = 0; k < def.milestoneCount(); k++) {
+            LevelCatalog.Milestone m = def.milestone(k);
+            currentNpcX = 135 + (int)((int)(HUD_WIDTH * 0.5) * ((double)m.score / world.currentLevel.winScore)) + 20;
+            final int sizeW = (int)(NPC_BASE_WIDTH * (1 + 0.4 * (k + 1)));
+            final int sizeH = (int)(NPC_BASE_HEIGHT * (1 + 0.3 * (k + 1)));
+            final int npcY = TEXT_Y_MAIN - sizeH + 15 + 5 * k;
+            // Chưa đạt mốc: VẼ MỜ (30% Opacity), đã đạt: VẼ SÁNG
+            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, world.score < m.score ? 0.3f : 1.0f));
+            BufferedImage icon = world.currentLevel.monsterTypes.get(m.icon).icon();
+            if (icon != null) g2.drawImage(icon, currentNpcX, npcY, sizeW, sizeH, null);
         }
-        // Vẽ npc2
-        if (npc2 != null) g2.drawImage(currentNpc2, currentNpcX, npcY2, size2_W, size2_H, null);
-        currentNpcX = 135 + (int)((int)(HUD_WIDTH * 0.5) * ((double)npc3Score / currentLevel.winScore))+ 20;
-        g2.setComposite(originalComposite1);// reset composite
-        
-        // 3. NPC3 
-        originalComposite1 = g2.getComposite();
-        final int size3_W = (int)(NPC_BASE_WIDTH * 1.8);
-        final int size3_H = (int)(NPC_BASE_HEIGHT * 1.6);
-        final int npcY3 = TEXT_Y_MAIN - size3_H + 20; 
-        if (score < npc3Score) {
-        // Nếu điểm chưa đạt mốc 900: VẼ MỜ (30% Opacity)
-        g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.3f));
-        } else {
-            // Nếu điểm đã đạt: VẼ SÁNG (100% Opacity)
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f));
-        }
-        if (npc3 != null) g2.drawImage(currentNpc3, currentNpcX, npcY3, size3_W, size3_H, null);
-        currentNpcX += size3_W + NPC_GAP;
         g2.setComposite(originalComposite1);// reset
         // C. SCORE
         final int SCORE_TEXT_X = (int)(HUD_WIDTH * 0.7); // Vị trí X cố định cho chữ SCORE
         drawTextWithOutline(g2, "SCORE", SCORE_TEXT_X, TEXT_Y_MAIN, FONT_OUTLINE, FONT_MAIN);
         // VẼ KHUNG ĐIỂM (Dịch sang phải 80px từ chữ SCORE)
-        g2.setFont(new Font("Cooper Std Black", Font.BOLD, TEXT_SIZE + 10));
+        g2.setFont(hudScoreFont);
         int scoreBoxX = SCORE_TEXT_X + 120;
-        drawTextWithOutline(g2, String.valueOf(score), scoreBoxX, TEXT_Y_MAIN, FONT_OUTLINE, Color.WHITE);
-        g2.setFont(new Font("Cooper Std Black", Font.BOLD, TEXT_SIZE));
+        drawTextWithOutline(g2, String.valueOf(world.score), scoreBoxX, TEXT_Y_MAIN, FONT_OUTLINE, Color.WHITE);
+        g2.setFont(hudFont);
         // E. GROWTH BAR (Thanh tiến hóa)
         int growthBarStartX = 20;
         int growthBarWidth =(int)(HUD_WIDTH * 0.5); // Chiếm khoảng nửa màn hình
@@ -575,8 +672,8 @@ public class GamePanel extends JPanel implements Runnable {
         
         // 3. VẼ PHẦN ĐÃ ĐẦY
         // Tính toán tiến độ hiện tại so với điểm thắng (2000d)
-        double winScore = currentLevel.winScore; 
-        double growthProgress = (double)score / winScore; 
+        double winScore = world.currentLevel.winScore; 
+        double growthProgress = (double)world.score / winScore; 
         
         // Giới hạn tiến độ không vượt quá 100%
         if (growthProgress > 1.0) growthProgress = 1.0; 
@@ -586,22 +683,15 @@ public class GamePanel extends JPanel implements Runnable {
         g2.fillRect(growthBarX, barY, (int)(growthBarWidth * growthProgress), barHeight);
         
         
-        // 3.3. VẼ CÁC NPC MỐC TIẾN HÓA (Vị trí điểm: 300d và 900d)
+        // 3.3. VẼ CÁC MỐC TIẾN HÓA
         g2.setColor(Color.YELLOW);
         final int TRIANGLE_SIZE = 10;
 
 
-        // MỐC NPC2 (300d)
-        
-        int npc2BarX = growthBarX + (int)(growthBarWidth * ((double)npc2Score / winScore));
-        g2.fillPolygon(new int[]{npc2BarX, npc2BarX - TRIANGLE_SIZE, npc2BarX + TRIANGLE_SIZE}, 
-                    new int[]{barY + barHeight - TRIANGLE_SIZE + 5, barY + barHeight  + 10, barY + barHeight  + 10}, 3);
-        
-        
-        // MỐC NPC3 (900d)
-        int npc3BarX = growthBarX + (int)(growthBarWidth * ((double)npc3Score / winScore));
-        g2.fillPolygon(new int[]{npc3BarX, npc3BarX - TRIANGLE_SIZE, npc3BarX + TRIANGLE_SIZE}, 
-                   new int[]{barY + barHeight - TRIANGLE_SIZE + 5, barY + barHeight + 10, barY + barHeight + 10}, 3); // Vẽ NPC Icon tại các mốc 
+        for (int k = 0; k < def.milestoneCount(); k++) {
+            int markX = growthBarX + (int)(growthBarWidth * ((double)def.milestone(k).score / winScore));
+            fillMilestone(g2, markX, barY + barHeight, TRIANGLE_SIZE);
+        }
     
         // F. ABILITY BAR (Khả năng đặc biệt)
         int abilityStartX = SCORE_TEXT_X;
@@ -620,7 +710,7 @@ public class GamePanel extends JPanel implements Runnable {
             for (int i = 0; i < 3; i++) {
                 int currentX = livesIconStartX + i * (LIVES_ICON_SIZE + LIVES_ICON_GAP); // 5px gap
                 
-                if (i < lives) {
+                if (i < world.lives) {
                     g2.drawImage(playerIcon, currentX, LIVES_ICON_Y, LIVES_ICON_SIZE, LIVES_ICON_SIZE, null);
                 } else {
                     // Mạng mất: VẼ icon mờ (đã mất)
@@ -633,16 +723,27 @@ public class GamePanel extends JPanel implements Runnable {
         } 
     }
 
+    // Tam giác đánh dấu mốc tiến hóa dưới thanh GROWTH
+    private void fillMilestone(Graphics2D g2, int x, int barBottom, int size) {
+        triangleX[0] = x;        triangleY[0] = barBottom - size + 5;
+        triangleX[1] = x - size; triangleY[1] = barBottom + 10;
+        triangleX[2] = x + size; triangleY[2] = barBottom + 10;
+        g2.fillPolygon(triangleX, triangleY, 3);
+    }
+
     public void playMusic(int i) {
-        sound.setFile(i);
-        sound.play();
-        sound.loop();
+        sound.playMusic(i);
     }
+    @Override
     public void stopMusic() {
-        sound.stop();
+        sound.stopMusic();
     }
+    @Override
     public void playSE(int i) {
-        sound.setFile(i);
-        sound.play();
+        sound.playSE(i);
+    }
+    @Override
+    public void levelStarted(int levelNum) {
+        sound.playLevelMusic(levelNum);
     }
 }
\ No newline at end of file
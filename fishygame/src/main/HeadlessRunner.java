@@ -0,0 +1,64 @@
+package main;
+
+/**
+ * Chạy World không có cửa sổ, không load ảnh, nhanh nhất có thể.
+ * Dùng cho load test / chạy cân bằng hàng loạt / kiểm tra hiệu năng trên CI.
+ *
+ * Cách chạy: java [-Dfishy.soa=true] -cp <classes> main.HeadlessRunner [ticks]
+ */
+public class HeadlessRunner {
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        World world = new World(780, 640, true);
+        int games = 0;
+        int maxEntities = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            driveInput(world, i);
+            world.update();
+            if (world.aquarium.size() > maxEntities) maxEntities = world.aquarium.size();
+
+            // Hết game (thắng hoặc thua) thì chơi lại ván mới
+            if ((world.gameState == world.gameOverState && !world.isGameOverBannerActive)
+                    || world.gameState == world.winState) {
+                world.resetGame();
+                games++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double seconds = elapsed / 1_000_000_000.0;
+        System.out.printf("ticks=%d time=%.3fs ticks/s=%.0f us/tick=%.2f%n",
+                ticks, seconds, ticks / seconds, elapsed / 1000.0 / ticks);
+        System.out.printf("games=%d level=%d score=%d lives=%d entities=%d maxEntities=%d%n",
+                games, world.currentLevel.levelNum, world.score, world.lives,
+                world.aquarium.size(), maxEntities);
+        System.out.println(world.aquarium.director);
+        printPhases(world);
+        for (entity.MonsterType t : world.currentLevel.monsterTypes) {
+            System.out.println(world.aquarium.pool(t));
+        }
+    }
+
+    /** p50/p95/p99 của từng pha đã đo (cửa sổ FrameProfiler.WINDOW mẫu cuối). */
+    static void printPhases(World world) {
+        long[] pct = new long[3];
+        for (perf.Phase p : perf.Phase.values()) {
+            if (world.profiler.samples(p) == 0) continue;
+            world.profiler.percentiles(p, pct);
+            System.out.printf("%-14s p50=%.1fus p95=%.1fus p99=%.1fus%n", (p.nested ? "  " : "") + p.label,
+                    pct[0] / 1000.0, pct[1] / 1000.0, pct[2] / 1000.0);
+        }
+    }
+
+    // Bot đơn giản: rê chuột theo quỹ đạo Lissajous để player bơi khắp bể
+    static void driveInput(World world, long tick) {
+        double t = tick * 0.01;
+        world.input.mouseX = (int) (world.screenWidth / 2 + Math.sin(t * 1.3) * world.screenWidth * 0.45);
+        world.input.mouseY = (int) (world.screenHeight / 2 + Math.sin(t * 0.7) * world.screenHeight * 0.45);
+    }
+}
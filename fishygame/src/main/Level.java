@@ -1,5 +1,6 @@
 package main;
 
+import entity.MonsterRegistry;
 import entity.MonsterType;
 import java.util.ArrayList;
 
@@ -8,64 +9,32 @@ public class Level {
     public int levelNum;
     public int winScore;
     public ArrayList<MonsterType> monsterTypes = new ArrayList<>();
+    // Định nghĩa đã biên dịch từ levels.txt (band spawn, mốc tiến hóa)
+    public final LevelCatalog.LevelDef def;
     
+    // false khi chạy headless: không decode sprite
+    private final boolean loadSprites;
+
     public Level(int levelNum) {
+        this(levelNum, true);
+    }
+
+    public Level(int levelNum, boolean loadSprites) {
         this.levelNum = levelNum;
+        this.loadSprites = loadSprites;
+        this.def = LevelCatalog.get().level(levelNum);
         setupLevel();
     }
+
+    /** Số level định nghĩa trong levels.txt. */
+    public static int count() {
+        return LevelCatalog.get().levelCount();
+    }
     
     private void setupLevel() {
-        if (levelNum == 1) {
-            this.winScore = 2000; 
-            
-            // 1. MINNOW (40x30) - 30 điểm
-            // Player Lv1 (50x40) LỚN HƠN -> Ăn được
-            monsterTypes.add(new MonsterType(
-                "minnow", "/res/minnow/", 2, 40, 30, 30, 
-                15, 7, 0, 0 
-            ));
-            // 2. SURGEONFISH (75x55) - 60 điểm
-            // Player Lv2 (75x63) LỚN HƠN -> Ăn được
-            monsterTypes.add(new MonsterType(
-                "surgeonfish", "/res/surgeonfish/", 3, 90, 70, 60, 
-                14, 5, 5, 0 
-            ));
-            // 3. LIONFISH (90x60) - 90 điểm
-            // Player Lv3 (100x80) LỚN HƠN -> Ăn được
-            monsterTypes.add(new MonsterType(
-                "lionfish", "/res/lionfish/", 4, 140, 120, 150, 
-                14, 5, 6, 6 
-            ));
-        } else if( levelNum == 2){
-            this.winScore = 5000;
-            monsterTypes.add(new MonsterType(
-                "barracuda", "/res/barracuda/", 2, 50, 35, 30, 
-                14, 5, 0, 0 
-            ));
-             monsterTypes.add(new MonsterType(
-                "parrotfish", "/res/parrotfish/", 3, 110, 80, 60, 
-                14, 5, 6, 0 
-            ));
-            monsterTypes.add(new MonsterType(
-                "Anglerfish", "/res/Anglerfish/", 4, 140, 120, 150, 
-                15, 5, 6, 7
-            ));
-
-        } else if( levelNum == 3){
-            this.winScore = 10000;
-            monsterTypes.add(new MonsterType(
-                "barracuda", "/res/barracuda/", 2, 50, 35, 30, 
-                14, 5, 0, 0 
-            ));
-             monsterTypes.add(new MonsterType(
-                "shark", "/res/shark/", 3, 110, 80, 60, 
-                14, 5, 6, 0 
-            ));
-            monsterTypes.add(new MonsterType(
-                "Anglerfish", "/res/Anglerfish/", 4, 140, 120, 150, 
-                15, 5, 6, 7
-            ));
-
-        }
+        // MonsterType lấy từ registry dùng chung: chỉ load sprite ở lần đầu gặp loài đó
+        MonsterRegistry registry = MonsterRegistry.get(loadSprites);
+        this.winScore = def.winScore;
+        for (String name : def.roster) monsterTypes.add(registry.type(name));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,299 @@
+package main;
+
+import entity.AliasSampler;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Định nghĩa loài cá và level đọc từ /res/levels.txt (xem chú thích đầu file đó).
+ * Đọc và "biên dịch" một lần: trọng số spawn thành AliasSampler, mốc tiến hóa thành mảng
+ * sắp xếp sẵn. Mọi bảng đều bất biến nên dùng chung được giữa các World / thread.
+ */
+public final class LevelCatalog {
+    public static final String PATH = "/res/levels.txt";
+    public static final int DEFAULT_BUDGET = 30;
+    public static final String DEFAULT_BACKGROUND = "/res/background.png";
+    public static final String DEFAULT_MUSIC = "/res/sound/background.wav";
+    private static LevelCatalog instance;
+
+    public static synchronized LevelCatalog get() {
+        if (instance == null) instance = load(PATH);
+        return instance;
+    }
+
+    /** Thông số một loài (dòng species). */
+    public static final class Species {
+        public final String name, folder;
+        public final int speed, width, height, score;
+        public final int swimCount, turnCount, eatCount, idleCount;
+        public final boolean hunter; // đuổi theo player (từ level 2)
+
+        Species(String name, String folder, int[] v, boolean hunter) {
+            this.name = name;
+            this.folder = folder;
+            this.hunter = hunter;
+            speed = v[0]; width = v[1]; height = v[2]; score = v[3];
+            swimCount = v[4]; turnCount = v[5]; eatCount = v[6]; idleCount = v[7];
+        }
+    }
+
+    /** Mốc tiến hóa của player: từ score trở lên thì lên stage, kích thước nhân scale. */
+    public static final class Milestone {
+        public final int score, stage;
+        public final double scale;
+        public final int icon; // index trong roster, dùng làm icon trên HUD
+
+        Milestone(int score, int stage, double scale, int icon) {
+            this.score = score;
+            this.stage = stage;
+            this.scale = scale;
+            this.icon = icon;
+        }
+    }
+
+    public static final class LevelDef {
+        public final int levelNum;
+        public final int winScore;
+        public final int budget;                 // số cá tối đa cùng lúc
+        public final List<String> roster;
+        public final String background;          // ảnh nền (đường dẫn resource)
+        public final String music;               // nhạc nền (file wav, stream)
+        private final int[] bandFrom;            // tăng dần, bandFrom[0] = 0
+        private final AliasSampler[] samplers;   // sampler của từng band
+        private final Milestone[] growth;        // tăng dần theo score
+
+        LevelDef(int levelNum, int winScore, int budget, List<String> roster, String background, String music, int[] bandFrom,
+                 AliasSampler[] samplers, Milestone[] growth) {
+            this.levelNum = levelNum;
+            this.winScore = winScore;
+            this.budget = budget;
+            this.roster = roster;
+            this.background = background;
+            this.music = music;
+            this.bandFrom = bandFrom;
+            this.samplers = samplers;
+            this.growth = growth;
+        }
+
+        /** Sampler của band chứa score (tìm nhị phân trên vài band). */
+        public AliasSampler spawnSampler(int score) {
+            int i = Arrays.binarySearch(bandFrom, score);
+            if (i < 0) i = -i - 2;
+            return samplers[Math.max(0, i)];
+        }
+
+        public int milestoneCount() {
+            return growth.length;
+        }
+
+        public Milestone milestone(int i) {
+            return growth[i];
+        }
+
+        /** Mốc cao nhất đã đạt với score, null nếu chưa đạt mốc nào. */
+        public Milestone reached(int score) {
+            Milestone best = null;
+            for (Milestone m : growth) {
+                if (score >= m.score) best = m;
+            }
+            return best;
+        }
+    }
+
+    private final Map<String, Species> species;
+    private final LevelDef[] levels;
+
+    private LevelCatalog(Map<String, Species> species, LevelDef[] levels) {
+        this.species = Collections.unmodifiableMap(species);
+        this.levels = levels;
+    }
+
+    public Species species(String name) {
+        return species.get(name);
+    }
+
+    public Iterable<Species> allSpecies() {
+        return species.values();
+    }
+
+    public int levelCount() {
+        return levels.length;
+    }
+
+    /** Ảnh nền của mọi level (không trùng), để preload cùng các ảnh khác. */
+    public String[] backgrounds() {
+        LinkedHashSet<String> paths = new LinkedHashSet<>();
+        for (LevelDef l : levels) paths.add(l.background);
+        return paths.toArray(new String[0]);
+    }
+
+    /** Level thứ levelNum (bắt đầu từ 1). */
+    public LevelDef level(int levelNum) {
+        if (levelNum < 1 || levelNum > levels.length) {
+            throw new IllegalArgumentException("No level " + levelNum + " in " + PATH);
+        }
+        return levels[levelNum - 1];
+    }
+
+    // ===================== PARSER =====================
+
+    static LevelCatalog load(String path) {
+        InputStream in = LevelCatalog.class.getResourceAsStream(path);
+        if (in == null) throw new IllegalStateException("Missing " + path);
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return parse(path, r);
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException("Cannot read " + path, e);
+        }
+    }
+
+    private static LevelCatalog parse(String path, BufferedReader r) throws java.io.IOException {
+        LinkedHashMap<String, Species> species = new LinkedHashMap<>();
+        ArrayList<LevelDef> levels = new ArrayList<>();
+
+        // Level đang đọc
+        int levelNum = -1, winScore = 0, budget = DEFAULT_BUDGET;
+        String background = DEFAULT_BACKGROUND, music = DEFAULT_MUSIC;
+        List<String> roster = null;
+        ArrayList<int[]> bands = new ArrayList<>(); // {from, w0, w1...}
+        ArrayList<Milestone> growth = new ArrayList<>();
+
+        String line;
+        int lineNo = 0;
+        while ((line = r.readLine()) != null) {
+            lineNo++;
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            String[] t = line.trim().split("\\s+");
+            if (t[0].isEmpty()) continue;
+            String where = path + ":" + lineNo + ": ";
+            try {
+                switch (t[0]) {
+                    case "species": {
+                        if (t.length != 12) expect(t, 11, where);
+                        else if (!t[11].equals("hunter")) throw new IllegalStateException(where + "unknown species flag " + t[11]);
+                        int[] v = new int[8];
+                        for (int i = 0; i < 8; i++) v[i] = Integer.parseInt(t[3 + i]);
+                        species.put(t[1], new Species(t[1], t[2], v, t.length == 12));
+                        break;
+                    }
+                    case "level":
+                        expect(t, 2, where);
+                        levelNum = Integer.parseInt(t[1]);
+                        if (levelNum != levels.size() + 1) throw new IllegalStateException(where + "levels must be numbered 1, 2, 3...");
+                        winScore = 0;
+                        budget = DEFAULT_BUDGET;
+                        background = DEFAULT_BACKGROUND;
+                        music = DEFAULT_MUSIC;
+                        roster = null;
+                        bands.clear();
+                        growth.clear();
+                        break;
+                    case "win":
+                        expect(t, 2, where);
+                        winScore = Integer.parseInt(t[1]);
+                        break;
+                    case "budget":
+                        expect(t, 2, where);
+                        budget = Integer.parseInt(t[1]);
+                        if (budget < 1) throw new IllegalStateException(where + "budget must be positive");
+                        break;
+                    case "background":
+                        expect(t, 2, where);
+                        background = t[1];
+                        break;
+                    case "music":
+                        expect(t, 2, where);
+                        music = t[1];
+                        break;
+                    case "roster":
+                        roster = new ArrayList<>();
+                        for (int i = 1; i < t.length; i++) {
+                            if (!species.containsKey(t[i])) throw new IllegalStateException(where + "unknown species " + t[i]);
+                            roster.add(t[i]);
+                        }
+                        roster = Collections.unmodifiableList(roster);
+                        break;
+                    case "band": {
+                        if (roster == null) throw new IllegalStateException(where + "band before roster");
+                        expect(t, 2 + roster.size(), where);
+                        int[] b = new int[t.length - 1];
+                        for (int i = 0; i < b.length; i++) b[i] = Integer.parseInt(t[1 + i]);
+                        if (!bands.isEmpty() && b[0] <= bands.get(bands.size() - 1)[0]) {
+                            throw new IllegalStateException(where + "bands must be in increasing score order");
+                        }
+                        bands.add(b);
+                        break;
+                    }
+                    case "growth": {
+                        expect(t, 5, where);
+                        int icon = roster == null ? -1 : roster.indexOf(t[4]);
+                        if (icon < 0) throw new IllegalStateException(where + t[4] + " is not in the roster");
+                        growth.add(new Milestone(Integer.parseInt(t[1]), Integer.parseInt(t[2]),
+                                Double.parseDouble(t[3]), icon));
+                        break;
+                    }
+                    case "end":
+                        levels.add(compile(levelNum, winScore, budget, roster, background, music, bands, growth, where));
+                        levelNum = -1;
+                        break;
+                    default:
+                        throw new IllegalStateException(where + "unknown keyword " + t[0]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException(where + "bad number (" + e.getMessage() + ")");
+            }
+        }
+        if (levelNum != -1) throw new IllegalStateException(path + ": level " + levelNum + " has no end");
+        if (levels.isEmpty()) throw new IllegalStateException(path + ": no levels");
+        return new LevelCatalog(species, levels.toArray(new LevelDef[0]));
+    }
+
+    private static LevelDef compile(int levelNum, int winScore, int budget, List<String> roster, String background,
+                                    String music, List<int[]> bands, List<Milestone> growth, String where) {
+        if (levelNum < 1) throw new IllegalStateException(where + "end without level");
+        if (roster == null || roster.isEmpty()) throw new IllegalStateException(where + "level " + levelNum + " has no roster");
+        if (winScore <= 0) throw new IllegalStateException(where + "level " + levelNum + " has no win score");
+
+        // Không có band nào: chia đều; band đầu luôn bắt đầu từ 0
+        ArrayList<int[]> all = new ArrayList<>(bands);
+        if (all.isEmpty() || all.get(0)[0] > 0) {
+            int[] even = new int[roster.size() + 1];
+            Arrays.fill(even, 1);
+            even[0] = 0;
+            all.add(0, all.isEmpty() ? even : withFrom(all.get(0), 0));
+        }
+        int[] from = new int[all.size()];
+        AliasSampler[] samplers = new AliasSampler[all.size()];
+        for (int i = 0; i < all.size(); i++) {
+            int[] b = all.get(i);
+            from[i] = b[0];
+            double[] w = new double[b.length - 1];
+            for (int k = 0; k < w.length; k++) w[k] = b[1 + k];
+            samplers[i] = new AliasSampler(w);
+        }
+
+        Milestone[] g = growth.toArray(new Milestone[0]);
+        Arrays.sort(g, (a, b) -> Integer.compare(a.score, b.score));
+        return new LevelDef(levelNum, winScore, budget, roster, background, music, from, samplers, g);
+    }
+
+    private static int[] withFrom(int[] band, int from) {
+        int[] b = band.clone();
+        b[0] = from;
+        return b;
+    }
+
+    private static void expect(String[] t, int n, String where) {
+        if (t.length != n) throw new IllegalStateException(where + t[0] + " expects " + (n - 1) + " values, got " + (t.length - 1));
+    }
+}
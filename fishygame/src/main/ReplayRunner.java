@@ -0,0 +1,62 @@
+package main;
+
+import input.InputReplayer;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Phát lại một file ghi input (-Dfishy.record=<file> lúc chơi) không cần cửa sổ, để có tải
+ * giống hệt nhau khi profile hoặc so hai bản build khung-với-khung.
+ * Mặc định chạy nhanh nhất có thể; --realtime giữ nhịp 60 tick/s như game thật;
+ * --render vẽ mỗi tick vào ảnh offscreen (đo cả phần vẽ).
+ * Thoát với mã 1 nếu trạng thái lệch so với lúc ghi (xem InputReplayer.firstDivergence).
+ *
+ * Cách chạy: java -cp <classes> main.ReplayRunner <file> [--render] [--realtime]
+ */
+public class ReplayRunner {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("usage: ReplayRunner <recording> [--render] [--realtime]");
+            System.exit(2);
+        }
+        System.setProperty("java.awt.headless", "true");
+        String path = args[0];
+        boolean render = false, realtime = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--render")) render = true;
+            else if (args[i].equals("--realtime")) realtime = true;
+        }
+
+        GamePanel gp = new GamePanel();
+        gp.startReplay(path);
+        InputReplayer replay = gp.replayer;
+        if (replay == null) System.exit(1);
+
+        BufferedImage frame = new BufferedImage(gp.screenWidth, gp.screenHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = frame.createGraphics();
+        long start = System.nanoTime();
+        long nextTick = start;
+        // Dừng ở tick cuối của file: không để GamePanel chạy tiếp bằng input thật
+        while (gp.replayer != null && replay.hasNext()) {
+            gp.update();
+            if (render) gp.render(g2);
+            if (realtime) {
+                nextTick += gp.simStep;
+                gp.frameTimer.waitUntil(nextTick);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        g2.dispose();
+        if (gp.replayer != null) System.out.println("[replay] " + replay);
+
+        World world = gp.world;
+        double seconds = elapsed / 1_000_000_000.0;
+        System.out.printf("ticks=%d time=%.3fs ticks/s=%.0f us/tick=%.2f%n",
+                replay.ticks, seconds, replay.ticks / seconds, elapsed / 1000.0 / Math.max(1, replay.ticks));
+        System.out.printf("level=%d score=%d lives=%d entities=%d hash=%08x%n",
+                world.currentLevel.levelNum, world.score, world.lives, world.aquarium.size(), world.stateHash());
+        HeadlessRunner.printPhases(world);
+        System.exit(replay.firstDivergence < 0 ? 0 : 1);
+    }
+}
@@ -1,45 +1,69 @@
 package main;
-import java.net.URL;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
 
+import audio.AudioMixer;
+import audio.MusicStream;
+import audio.PcmBuffer;
+
+/**
+ * Âm thanh của game. Hiệu ứng được decode một lần thành PcmBuffer lúc khởi tạo;
+ * nhạc nền (index 0 và nhạc từng level trong levels.txt) không decode cả bài mà stream dần
+ * qua MusicStream.
+ * Phát nhạc / hiệu ứng chỉ là gửi lệnh cho AudioMixer (thread riêng, một line duy nhất).
+ */
 public class Sound {
-    Clip clip;
-    URL soundURL[] = new URL[30];
+    private static final String[] FILES = {
+        LevelCatalog.DEFAULT_MUSIC,
+        "/res/sound/bigger.wav",
+        "/res/sound/bonus.wav",
+        "/res/sound/eat.wav",
+        "/res/sound/ending.wav",
+    };
+    private static final int MUSIC_COUNT = 1; // các index < MUSIC_COUNT là nhạc nền, stream thay vì decode
+    public static final int CROSSFADE_MS = 1500;
+
+    public float musicGain = 0.6f;
+    public float effectGain = 1.0f;
+
+    final AudioMixer mixer = new AudioMixer();
+    final PcmBuffer[] buffers = new PcmBuffer[FILES.length];
+    private String currentMusic; // file bài đang phát, null = im
 
     public Sound() {
-        soundURL[0] = getClass().getResource("/res/sound/background.wav");
-        soundURL[1] = getClass().getResource("/res/sound/bigger.wav");
-        soundURL[2] = getClass().getResource("/res/sound/bonus.wav");
-        soundURL[3] = getClass().getResource("/res/sound/eat.wav");
-        soundURL[4] = getClass().getResource("/res/sound/ending.wav");
+        if (!mixer.start()) return; // không có thiết bị âm thanh: khỏi decode
+        for (int i = MUSIC_COUNT; i < FILES.length; i++) buffers[i] = PcmBuffer.load(FILES[i], AudioMixer.SAMPLE_RATE);
+    }
+
+    private PcmBuffer buffer(int i) {
+        return i >= 0 && i < buffers.length ? buffers[i] : null;
     }
 
-    public void setFile(int i) {
-        try {
-            AudioInputStream ais = AudioSystem.getAudioInputStream(soundURL[i]);
-            clip = AudioSystem.getClip();
-            clip.open(ais);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    public void playSE(int i) {
+        mixer.play(buffer(i), effectGain, false);
     }
 
-    public void play() {
-        if (clip != null) {
-            clip.setFramePosition(0); // Rewind to the beginning
-            clip.start();
-        }
+    /** Phát nhạc nền lặp lại, crossfade từ bài đang phát. Đang phát đúng bài đó thì thôi. */
+    public void playMusic(int i) {
+        playMusic(i, CROSSFADE_MS);
     }
 
-    public void loop() {
-        if (clip != null) {
-            clip.loop(Clip.LOOP_CONTINUOUSLY);
-        }
+    public void playMusic(int i, int fadeMs) {
+        if (i >= 0 && i < MUSIC_COUNT) playMusic(FILES[i], fadeMs);
     }
 
-    public void stop() {
-            clip.stop();
-        }
+    public void playMusic(String path, int fadeMs) {
+        if (path.equals(currentMusic) || !mixer.isRunning()) return;
+        currentMusic = path;
+        mixer.playMusic(MusicStream.open(path, true), musicGain, fadeMs);
+    }
+
+    /** Nhạc nền của level (music trong levels.txt); chỉ crossfade khi level sau dùng bài khác. */
+    public void playLevelMusic(int levelNum) {
+        playMusic(LevelCatalog.get().level(levelNum).music, CROSSFADE_MS);
+    }
+
+    /** Dừng nhạc nền với fade ngắn; không chặn thread gọi. */
+    public void stopMusic() {
+        mixer.stopMusic(300);
+        currentMusic = null;
+    }
 }
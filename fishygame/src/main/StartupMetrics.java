@@ -0,0 +1,77 @@
+package main;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Đo thời gian khởi động: từ main() tới khung hình menu đầu tiên được vẽ và tới
+ * khung hình game đầu tiên (kèm thời gian từ lúc tiến trình JVM bắt đầu tới main()).
+ * In một dòng "[startup] ..." cho mỗi mốc; mỗi mốc chỉ ghi một lần.
+ *
+ * -Dfishy.training=<giây>: chế độ chạy mẫu để tạo CDS archive (packaging/build-runtime.sh):
+ * tự bấm Play khi game sẵn sàng, chơi level 1 trong số giây đó rồi thoát.
+ */
+public final class StartupMetrics {
+    public static final int TRAINING_SECONDS = Integer.getInteger("fishy.training", 0);
+
+    private static long mainNanos;
+    private static long jvmToMainMs = -1;
+    private static volatile long menuMs = -1;
+    private static volatile long gameMs = -1;
+
+    private StartupMetrics() {}
+
+    public static boolean training() {
+        return TRAINING_SECONDS > 0;
+    }
+
+    /** Gọi ngay đầu main(). */
+    public static void mainStarted() {
+        mainNanos = System.nanoTime();
+        ProcessHandle.current().info().startInstant()
+                .ifPresent(start -> jvmToMainMs = Duration.between(start, Instant.now()).toMillis());
+    }
+
+    /** Gọi sau mỗi lần vẽ menu; chỉ lần đầu được ghi lại. */
+    public static void menuFramePainted() {
+        if (menuMs >= 0 || mainNanos == 0) return;
+        menuMs = sinceMain();
+        System.out.println("[startup] first menu frame: " + menuMs + " ms after main (jvm start -> main: "
+                + jvmToMainMs + " ms)");
+    }
+
+    /** Gọi sau mỗi khung hình game được đưa lên màn hình; chỉ lần đầu được ghi lại. */
+    public static void gameFramePresented() {
+        if (gameMs >= 0 || mainNanos == 0) return;
+        gameMs = sinceMain();
+        System.out.println("[startup] first game frame: " + gameMs + " ms after main");
+        if (training()) exitAfter(TRAINING_SECONDS);
+    }
+
+    public static long menuMillis() {
+        return menuMs;
+    }
+
+    public static long gameMillis() {
+        return gameMs;
+    }
+
+    private static long sinceMain() {
+        return (System.nanoTime() - mainNanos) / 1_000_000L;
+    }
+
+    // Chạy mẫu xong thì thoát bình thường (System.exit) để JVM ghi CDS archive
+    private static void exitAfter(int seconds) {
+        Thread t = new Thread(() -> {
+            try {
+                Thread.sleep(seconds * 1000L);
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.out.println("[startup] training run finished");
+            System.exit(0);
+        }, "training-exit");
+        t.setDaemon(true);
+        t.start();
+    }
+}
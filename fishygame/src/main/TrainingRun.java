@@ -0,0 +1,40 @@
+package main;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Chạy mẫu không cần màn hình (máy build không có DISPLAY): vẽ menu và level 1 vào ảnh
+ * offscreen, đi qua gần như cùng các class (Java2D, ImageIO, Swing, logic game) như
+ * lần chạy thật, để CDS archive tạo ra vẫn có ích. Chỉ thiếu các class cửa sổ / peer.
+ */
+final class TrainingRun {
+    private TrainingRun() {}
+
+    static void runHeadless(int seconds) {
+        BufferedImage frame = new BufferedImage(GamePanel.SCREEN_WIDTH, GamePanel.SCREEN_HEIGHT,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = frame.createGraphics();
+
+        UI menu = new UI(null);
+        menu.setSize(GamePanel.SCREEN_WIDTH, GamePanel.SCREEN_HEIGHT);
+        menu.paint(g2);
+
+        GamePanel gamePanel = new GamePanel();
+        menu.setGamePanel(gamePanel);
+        menu.paint(g2);
+
+        // Level 1 với bot rê chuột như HeadlessRunner, vẽ mỗi tick
+        for (long tick = 0; tick < seconds * 60L; tick++) {
+            HeadlessRunner.driveInput(gamePanel.world, tick);
+            gamePanel.mouseH.mouseX = gamePanel.world.input.mouseX;
+            gamePanel.mouseH.mouseY = gamePanel.world.input.mouseY;
+            gamePanel.update();
+            gamePanel.render(g2);
+            StartupMetrics.gameFramePresented();
+        }
+        g2.dispose();
+        System.out.println("[startup] training run finished");
+        System.exit(0);
+    }
+}
@@ -5,12 +5,13 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
 import java.awt.geom.AffineTransform;
-import java.io.IOException;
-import javax.imageio.ImageIO;
+import render.AssetManager;
 
 public class UI extends JPanel {
     JFrame window;
-    GamePanel gamePanel;
+    // null cho tới khi phần chơi load xong (GamePanel được tạo sau khi menu đã hiện)
+    volatile GamePanel gamePanel;
+    private Timer loadingTimer;
     public Image background;
     public Image bambooFrame;
     public Image titleLogo;
@@ -39,28 +40,39 @@ public class UI extends JPanel {
     };
 
 
-    public UI(JFrame window, GamePanel gamePanel){
-        this.setPreferredSize(new Dimension(gamePanel.screenWidth, gamePanel.screenHeight));
+    // Ảnh của menu, được xếp hàng decode đầu tiên để menu hiện sớm nhất có thể
+    public static final String[] IMAGES = {
+        "/res/screen/background.png", "/res/screen/menuu.png", "/res/screen/gametitle.png",
+        "/res/screen/sanho1.png", "/res/screen/sanho2.png", "/res/angelfish/angelfishidle1.png"
+    };
+
+    public UI(JFrame window){
+        this.setPreferredSize(new Dimension(GamePanel.SCREEN_WIDTH, GamePanel.SCREEN_HEIGHT));
         this.window = window;
-        this.gamePanel = gamePanel;
 
-        try {
-            background = ImageIO.read(getClass().getResourceAsStream("/res/screen/background.png"));
-            bambooFrame = ImageIO.read(getClass().getResourceAsStream("/res/screen/menuu.png"));
-            titleLogo = ImageIO.read(getClass().getResourceAsStream("/res/screen/gametitle.png"));
-            seashellButton1 = ImageIO.read(getClass().getResourceAsStream("/res/screen/sanho1.png"));
-            seashellButton2 = ImageIO.read(getClass().getResourceAsStream("/res/screen/sanho2.png"));
-            andyFish = ImageIO.read(getClass().getResourceAsStream("/res/angelfish/angelfishidle1.png"));
-    
+        // Chỉ chờ ảnh của menu (đang decode song song), phần còn lại load phía sau
+        AssetManager assets = AssetManager.get();
+        assets.preload(IMAGES);
+        background = assets.image("/res/screen/background.png");
+        bambooFrame = assets.image("/res/screen/menuu.png");
+        titleLogo = assets.image("/res/screen/gametitle.png");
+        seashellButton1 = assets.image("/res/screen/sanho1.png");
+        seashellButton2 = assets.image("/res/screen/sanho2.png");
+        andyFish = assets.image("/res/angelfish/angelfishidle1.png");
 
-        } catch (IOException e) { e.printStackTrace(); }
+        // Vẽ lại thanh loading đều đặn cho tới khi game sẵn sàng
+        loadingTimer = new Timer(50, e -> {
+            repaint();
+            if (gamePanel != null) loadingTimer.stop();
+        });
+        loadingTimer.start();
     
         
         // xu ly click chuot de chuyen man hinh
         this.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e){
-                if(isHovered){
+                if(isHovered && gamePanel != null){
                     // code chuyen man hinh
                     startGame();
                 }
@@ -84,6 +96,12 @@ public class UI extends JPanel {
     }
     
 
+    /** Gọi khi phần chơi đã load xong; từ lúc này nút Play mới bấm được. */
+    public void setGamePanel(GamePanel gamePanel) {
+        this.gamePanel = gamePanel;
+        repaint();
+    }
+
     // THÊM HÀM NÀY ĐỂ CHUYỂN MÀN HÌNH
     public void startGame() {
         // 1. Xóa Menu hiện tại khỏi cửa sổ
@@ -106,8 +124,8 @@ public class UI extends JPanel {
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 
-        int width = gamePanel.screenWidth;
-        int height = gamePanel.screenHeight;
+        int width = GamePanel.SCREEN_WIDTH;
+        int height = GamePanel.SCREEN_HEIGHT;
 
         // 1. Vẽ Nền
         if (background != null) g2d.drawImage(background, 0, 0, width, height, null);
@@ -205,7 +223,15 @@ public class UI extends JPanel {
         // <--- SỬA LẠI: Đặt nút cao hơn một chút để đè lên cạnh dưới khung tre
         btnY = frameY + frameH - (int)(btnH * 1.2);
 
-        
+        // Menu đã hiện (nút Play hoặc thanh loading vẽ ngay sau đây)
+        StartupMetrics.menuFramePainted();
+
+        // Game chưa load xong: thay nút Play bằng thanh tiến độ
+        if (gamePanel == null) {
+            drawLoading(g2d, btnX, btnY + btnH / 3, btnW, btnH / 3);
+            return;
+        }
+
         Image currentBtnImage = isHovered ? seashellButton2 : seashellButton1;
 
         // Vẽ cái vỏ sò (nền nút)
@@ -227,5 +253,21 @@ public class UI extends JPanel {
          //TITLE STATE
 
     }
+
+    private void drawLoading(Graphics2D g2d, int x, int y, int w, int h) {
+        double progress = AssetManager.get().progress();
+        g2d.setColor(new Color(0, 0, 50, 160));
+        g2d.fillRoundRect(x, y, w, h, h, h);
+        g2d.setColor(TEXT_COLOR_CREAM);
+        g2d.fillRoundRect(x, y, (int) (w * progress), h, h, h);
+        g2d.setColor(BTN_TEXT_COLOR);
+        g2d.drawRoundRect(x, y, w, h, h, h);
+
+        g2d.setFont(bodyFont.deriveFont(18f));
+        String text = "Loading " + (int) (progress * 100) + "%";
+        FontMetrics fm = g2d.getFontMetrics();
+        g2d.setColor(TEXT_COLOR_CREAM);
+        g2d.drawString(text, x + (w - fm.stringWidth(text)) / 2, y - 6);
+    }
     
 }
\ No newline at end of file
@@ -0,0 +1,282 @@
+package main;
+
+import entity.Aquarium;
+import entity.Banner;
+import entity.Player;
+import input.InputState;
+import perf.FrameProfiler;
+import perf.LevelTransitionEvent;
+import perf.Phase;
+
+/**
+ * Lõi mô phỏng của game: toàn bộ trạng thái và logic update, không phụ thuộc Swing.
+ * Có thể chạy headless (không load ảnh, không cửa sổ) để load test / chạy cân bằng hàng loạt.
+ * GamePanel chỉ là một lớp hiển thị (view) đặt lên trên World.
+ */
+public class World {
+    // --- 1. SCREEN & WORLD SETTINGS ---
+    public final int screenWidth;   // kích thước khung nhìn của camera
+    public final int screenHeight;
+    public int worldWidth = 1280;
+    public int worldHeight = 960;
+    public final boolean headless;  // true: không load ảnh / âm thanh
+    // true: kết quả chỉ phụ thuộc input, không phụ thuộc tốc độ máy (tắt throttle spawn)
+    public boolean deterministic = Boolean.getBoolean("fishy.deterministic");
+    // Seed của mọi luồng ngẫu nhiên trong mô phỏng (-Dfishy.seed=<n> để cố định), ghi vào file khi record
+    public long seed;
+    public final WorldRandom random = new WorldRandom(0);
+
+    // --- 2. CAMERA ---
+    public int cameraX = 0;
+    public int cameraY = 0;
+    public int prevCameraX = 0, prevCameraY = 0;
+
+    // --- 3. GAME STATE ---
+    public int gameState ; // quyết định game đang ở màn hình nào
+    public final int playState = 1;// đang chơi
+    public final int gameOverState = 2;// thua
+    public final int winState = 3;// vinner
+    public final int pauseState = 4;// tạm dừng
+    public final int respawnState = 5;
+
+    // --- 4. DATA ---
+    public Level currentLevel;
+    public boolean startBannerShown = false;
+    public boolean isGameOverBannerActive = false;
+    public int score = 0;
+    public int lives = 3;
+    public long tickCount = 0;
+
+    // --- 5. ENTITIES & SYSTEMS ---
+    public final InputState input = new InputState();
+    public Player player;
+    public Aquarium aquarium;
+    public CollisionChecker cChecker;
+    public Banner banner;
+    public WorldListener listener = new WorldListener() {};
+    // Đo thời gian từng pha của tick (và của khung hình, do view ghi vào)
+    public final FrameProfiler profiler = new FrameProfiler();
+
+    // Hệ số nội suy của khung hình đang vẽ (do view đặt), chỉ dùng khi draw
+    public double paintAlpha = 1.0;
+
+    public World(int screenWidth, int screenHeight, boolean headless) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.headless = headless;
+
+        currentLevel = new Level(1, !headless); // bắt đầu ở màn 1
+        gameState = playState;
+
+        cChecker = new CollisionChecker(this);
+        player = new Player(this);
+        aquarium = new Aquarium(this);
+
+        banner = new Banner(this);
+        banner.show("LEVEL 1", 180);// hiển thị dòng chữ level 1 trong vòng 180 frame (3s)
+        reseed(Long.getLong("fishy.seed", System.nanoTime()));
+    }
+
+    /** Đặt lại seed; gọi trước tick đầu tiên thì cả phiên chơi chỉ còn phụ thuộc input. */
+    public void reseed(long seed) {
+        this.seed = seed;
+        random.reseed(seed);
+    }
+
+    /** Băm trạng thái mô phỏng, để so một lần phát lại với lúc ghi (InputReplayer). */
+    public int stateHash() {
+        int h = (int) tickCount;
+        h = 31 * h + score;
+        h = 31 * h + lives;
+        h = 31 * h + gameState;
+        h = 31 * h + currentLevel.levelNum;
+        h = 31 * h + player.x;
+        h = 31 * h + player.y;
+        h = 31 * h + player.width;
+        h = 31 * h + cameraX;
+        h = 31 * h + cameraY;
+        return 31 * h + aquarium.stateHash();
+    }
+
+    // khôi phục toàn bộ trò chơi về trạng thái ban đầu
+    public void resetGame() {
+        LevelTransitionEvent ev = new LevelTransitionEvent();
+        ev.begin();
+        int fromLevel = currentLevel.levelNum;
+        score = 0;
+        lives = 3;
+        long loadStart = System.nanoTime();
+        currentLevel = new Level(1, !headless);
+        long loadNanos = System.nanoTime() - loadStart;
+        aquarium.reset();
+        player.setDefaultValues();
+        banner.show("LEVEL 1", 180);
+        startBannerShown = false;
+        gameState = playState;
+        listener.levelStarted(1);
+        commitTransition(ev, fromLevel, loadNanos);
+    }
+
+    // Ghi event JFR cho lần chuyển màn (không ghi thì shouldCommit() = false, không tốn gì)
+    private void commitTransition(LevelTransitionEvent ev, int fromLevel, long loadNanos) {
+        ev.end();
+        if (ev.shouldCommit()) {
+            ev.fromLevel = fromLevel;
+            ev.toLevel = currentLevel.levelNum;
+            ev.score = score;
+            ev.assetLoadNanos = loadNanos;
+            ev.commit();
+        }
+    }
+
+    /** Một bước mô phỏng cố định. */
+    public void update() {
+        long tickStart = profiler.begin();
+        tickCount++;
+        // Lưu trạng thái bước trước để nội suy khi vẽ
+        savePreviousState();
+
+        banner.update();
+
+        if (gameState == playState) {
+            long t = profiler.begin();
+            if (aquarium.useStore) cChecker.checkPlayerVsStore(player, aquarium.store);
+            else cChecker.checkPlayerVsEnemies(player, aquarium.entities);
+            profiler.end(Phase.PLAYER_COLLISION, t);
+
+            t = profiler.begin();
+            player.update();
+            profiler.end(Phase.PLAYER, t);
+
+            t = profiler.begin();
+            updateCamera();
+            profiler.end(Phase.CAMERA, t);
+
+            t = profiler.begin();
+            aquarium.update();
+            profiler.end(Phase.AQUARIUM, t);
+
+            // Kiểm tra chuyển màn
+            if(score >= currentLevel.winScore){
+                if (currentLevel.levelNum < Level.count()) { // Nếu chưa phải level cuối
+                    banner.show("LEVEL COMPLETE", 180);
+                    gameState = pauseState;
+                    startBannerShown = true;
+                    // startBannerShown = true sẽ kích hoạt nextLevel() trong đoạn logic pauseState bên dưới
+                } else {
+                    // Đã thắng level cuối
+                    gameState = winState;
+                    stopMusic();
+                }
+            }
+
+            if(lives <= 0){
+                gameState = gameOverState;
+                isGameOverBannerActive = true;
+                banner.show("YOU LOSE", 180);
+                stopMusic();
+            }
+        }
+        if (gameState == pauseState) {
+            if(startBannerShown){
+                if (!banner.isActive()) {
+                    startBannerShown = false; // Tắt đánh dấu
+                    nextLevel(); // Chuyển sang Level kế tiếp
+                }
+            } else {
+                // Thoát Pause nếu là banner thông báo mất mạng (Sorry/Respawn)
+                if (!banner.isActive() && lives > 0) gameState = playState;
+            }
+        }
+        else if (gameState == respawnState) {
+            if (!banner.isActive()) {
+                gameState = playState;
+                player.resetPosition();
+                player.enableInvincibility();
+            }
+        }
+        else if (gameState == gameOverState) {
+            if (isGameOverBannerActive) {
+                if (!banner.isActive()) {
+                    isGameOverBannerActive = false; // Sau khi xong chữ YOU LOSE, flag này tắt để hiện Menu
+                }
+            }
+        }
+
+        // Xóa thật các con bị ăn / ra khỏi thế giới trong tick này
+        aquarium.flushRemovals();
+        profiler.end(Phase.TICK, tickStart);
+    }
+
+    private void savePreviousState() {
+        prevCameraX = cameraX;
+        prevCameraY = cameraY;
+        player.savePrevious();
+        aquarium.savePrevious();
+    }
+
+    // Vị trí camera đã nội suy, dùng khi vẽ
+    public int renderCameraX() {
+        return (int) Math.round(prevCameraX + (cameraX - prevCameraX) * paintAlpha);
+    }
+
+    public int renderCameraY() {
+        return (int) Math.round(prevCameraY + (cameraY - prevCameraY) * paintAlpha);
+    }
+
+    public void updateCamera() {
+        int marginX = 150; int marginY = 100;
+        int playerScreenX = player.x - cameraX;
+        int playerScreenY = player.y - cameraY;
+
+        if (playerScreenX < marginX) cameraX = player.x - marginX;
+        else if (playerScreenX + player.width > screenWidth - marginX) cameraX = (player.x + player.width) - (screenWidth - marginX);
+
+        if (playerScreenY < marginY) cameraY = player.y - marginY;
+        else if (playerScreenY + player.height > screenHeight - marginY) cameraY = (player.y + player.height) - (screenHeight - marginY);
+
+        if (cameraX < 0) cameraX = 0;
+        if (cameraY < 0) cameraY = 0;
+        if (cameraX > worldWidth - screenWidth) cameraX = worldWidth - screenWidth;
+        if (cameraY > worldHeight - screenHeight) cameraY = worldHeight - screenHeight;
+    }
+
+    public void nextLevel() {
+        // Tăng số Level hiện tại lên
+        int nextLvl = currentLevel.levelNum + 1;
+        if(nextLvl <= Level.count()){
+            LevelTransitionEvent ev = new LevelTransitionEvent();
+            ev.begin();
+            int fromLevel = currentLevel.levelNum;
+            // Dựng level mới = lấy sprite các loài của level (MonsterRegistry), phần "load asset"
+            long loadStart = System.nanoTime();
+            currentLevel = new Level(nextLvl, !headless);
+            long loadNanos = System.nanoTime() - loadStart;
+
+            player.setDefaultValues();
+            player.resetPosition();
+            cameraX = 0; cameraY = 0;
+            prevCameraX = 0; prevCameraY = 0;
+            aquarium.reset();
+
+            banner.show("LEVEL " + nextLvl, 180);
+            gameState = playState;
+            startBannerShown = false;
+            listener.levelStarted(nextLvl);
+            commitTransition(ev, fromLevel, loadNanos);
+            System.out.println("Transition to Level" + currentLevel+ " successful. Score retained: " + score);
+        } else {
+            gameState = winState;
+            stopMusic();
+        }
+    }
+
+    // --- SOUND HOOKS (view quyết định có phát hay không) ---
+    public void playSE(int i) {
+        listener.playSE(i);
+    }
+
+    public void stopMusic() {
+        listener.stopMusic();
+    }
+}
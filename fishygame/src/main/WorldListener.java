@@ -0,0 +1,15 @@
+package main;
+
+/**
+ * Các sự kiện từ World mà lớp hiển thị quan tâm (âm thanh, nhạc nền).
+ * Mặc định không làm gì, nên World chạy headless không cần cài đặt.
+ */
+public interface WorldListener {
+
+    default void playSE(int i) {}
+
+    default void stopMusic() {}
+
+    /** Bắt đầu một level (New Game hoặc qua màn), VD để đổi nhạc nền. */
+    default void levelStarted(int levelNum) {}
+}
@@ -0,0 +1,35 @@
+package main;
+
+import entity.Rng;
+
+/**
+ * Nguồn ngẫu nhiên của mô phỏng: mọi luồng đều tách ra từ một seed của World.
+ * - spawn: chọn loài, mép vào, cao độ, hướng bơi ban đầu (Aquarium + SpawnDirector)
+ * - AI: mỗi con cá một luồng riêng, seed = (seed, AI, số thứ tự con cá) khi lấy ra từ pool
+ *   hoặc thêm vào EnemyStore; không phụ thuộc thứ tự update của các con.
+ * Hệ thống mới cần ngẫu nhiên thì thêm một stream id ở đây, không dùng chung luồng có sẵn.
+ */
+public class WorldRandom {
+    public static final long SPAWN = 1;
+    public static final long AI = 2;
+
+    public long seed;
+    public final Rng spawn = new Rng(0);
+    private long nextEntity = 0;
+
+    public WorldRandom(long seed) {
+        reseed(seed);
+    }
+
+    /** Đặt lại mọi luồng về đầu (gọi trước tick đầu tiên để phiên chơi lặp lại được). */
+    public void reseed(long seed) {
+        this.seed = seed;
+        spawn.setSeed(Rng.derive(seed, SPAWN, 0));
+        nextEntity = 0;
+    }
+
+    /** Seed cho luồng AI của con cá kế tiếp. */
+    public long entitySeed() {
+        return Rng.derive(seed, AI, nextEntity++);
+    }
+}
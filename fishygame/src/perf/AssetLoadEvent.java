@@ -0,0 +1,23 @@
+package perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Decode một ảnh trên thread của AssetManager. */
+@Name("fishygame.AssetLoad")
+@Label("Asset Load")
+@Category({"Fishy Game", "Assets"})
+public class AssetLoadEvent extends jdk.jfr.Event {
+    @Label("Path")
+    public String path;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Success")
+    public boolean success;
+}
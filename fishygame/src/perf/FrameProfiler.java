@@ -0,0 +1,73 @@
+package perf;
+
+import java.util.Arrays;
+
+/**
+ * Bộ đo thời gian từng pha (nanosecond), mỗi pha giữ WINDOW mẫu gần nhất trong một
+ * ring buffer; p50/p95/p99 tính khi cần (sắp xếp một bản sao của ring).
+ *
+ * Cách dùng:
+ *   long t = profiler.begin();
+ *   ...
+ *   profiler.end(Phase.CAMERA, t);
+ *
+ * Mỗi pha chỉ được ghi từ một thread (game thread, hoặc EDT với phần vẽ ở chế độ swing);
+ * phía đọc (overlay) chấp nhận đọc lệch một mẫu, không khóa gì.
+ * Tắt bằng -Dfishy.profile=false: begin() trả về 0 và end() không làm gì.
+ */
+public final class FrameProfiler {
+    public static final int WINDOW = 512; // lũy thừa của 2
+
+    public boolean enabled = !"false".equals(System.getProperty("fishy.profile"));
+
+    private final long[][] rings = new long[Phase.values().length][WINDOW];
+    private final long[] recorded = new long[Phase.values().length];
+    private final long[] scratch = new long[WINDOW];
+
+    public long begin() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void end(Phase phase, long start) {
+        if (start != 0L) record(phase, System.nanoTime() - start);
+    }
+
+    public void record(Phase phase, long nanos) {
+        int p = phase.ordinal();
+        rings[p][(int) (recorded[p] & (WINDOW - 1))] = nanos;
+        recorded[p]++;
+    }
+
+    /** Số mẫu đang có trong cửa sổ của pha. */
+    public int samples(Phase phase) {
+        return (int) Math.min(WINDOW, recorded[phase.ordinal()]);
+    }
+
+    /** Mẫu gần nhất (ns), 0 nếu chưa có. */
+    public long last(Phase phase) {
+        int p = phase.ordinal();
+        long n = recorded[p];
+        return n == 0 ? 0 : rings[p][(int) ((n - 1) & (WINDOW - 1))];
+    }
+
+    /**
+     * Ghi p50, p95, p99 (ns) của pha vào out[0..2]. Không có mẫu thì toàn 0.
+     * Không cấp phát; chỉ gọi từ một thread (overlay).
+     */
+    public void percentiles(Phase phase, long[] out) {
+        int n = samples(phase);
+        if (n == 0) {
+            out[0] = out[1] = out[2] = 0;
+            return;
+        }
+        System.arraycopy(rings[phase.ordinal()], 0, scratch, 0, n);
+        Arrays.sort(scratch, 0, n);
+        out[0] = scratch[(int) (n * 0.50)];
+        out[1] = scratch[Math.min(n - 1, (int) (n * 0.95))];
+        out[2] = scratch[Math.min(n - 1, (int) (n * 0.99))];
+    }
+
+    public void reset() {
+        Arrays.fill(recorded, 0);
+    }
+}
@@ -0,0 +1,39 @@
+package perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Một vòng game loop: các bước mô phỏng + vẽ khung hình. Thời lượng của event là cả vòng
+ * (không tính thời gian ngủ chờ khung sau), nên đặt cạnh GC / JIT trong JMC là thấy
+ * khung nào bị khựng vì đâu.
+ */
+@Name("fishygame.GameTick")
+@Label("Game Tick")
+@Category({"Fishy Game", "Loop"})
+@Description("One game loop iteration: fixed-step updates and the frame paint")
+public class GameTickEvent extends jdk.jfr.Event {
+    @Label("Simulation Steps")
+    public int steps;
+
+    @Label("Update Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long updateNanos;
+
+    @Label("Paint Time")
+    @Description("Render + present; -1 when painting happens on the EDT (fishy.render=swing)")
+    @Timespan(Timespan.NANOSECONDS)
+    public long paintNanos;
+
+    @Label("Entities")
+    public int entities;
+
+    @Label("Level")
+    public int level;
+
+    @Label("Game State")
+    public int gameState;
+}
@@ -0,0 +1,28 @@
+package perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Chuyển màn (World.nextLevel / resetGame). Thời lượng của event là cả lần chuyển;
+ * assetLoadNanos là phần dựng Level mới (lấy sprite các loài từ MonsterRegistry).
+ */
+@Name("fishygame.LevelTransition")
+@Label("Level Transition")
+@Category({"Fishy Game", "Gameplay"})
+public class LevelTransitionEvent extends jdk.jfr.Event {
+    @Label("From Level")
+    public int fromLevel;
+
+    @Label("To Level")
+    public int toLevel;
+
+    @Label("Score")
+    public int score;
+
+    @Label("Asset Load Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long assetLoadNanos;
+}
@@ -0,0 +1,94 @@
+package perf;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import main.World;
+
+/**
+ * Bảng hiệu năng vẽ đè lên góc màn hình (bật/tắt bằng F3): p50/p95/p99 từng pha và
+ * các bộ đếm (số cá, budget, spawn/xóa mỗi giây). Nội dung chỉ tính lại REFRESH_MS một lần
+ * để bản thân overlay không làm méo số đo.
+ */
+public class PerfOverlay {
+    private static final long REFRESH_MS = 250;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+    private static final Color TEXT = new Color(200, 255, 200);
+    private static final Color WARN = new Color(255, 150, 120);
+
+    public boolean visible = false;
+
+    private final FrameProfiler profiler;
+    private final String[] lines = new String[Phase.values().length + 4];
+    private final boolean[] warn = new boolean[lines.length];
+    private int lineCount = 0;
+    private final long[] pct = new long[3];
+    private long lastRefresh = 0;
+    private long lastSpawned, lastRemoved;
+    private double spawnRate, removeRate;
+
+    // Ngân sách một khung hình (ns), pha tổng vượt p95 thì tô màu cảnh báo
+    public long frameBudgetNanos = 1_000_000_000L / 60;
+
+    public PerfOverlay(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public void toggle() {
+        visible = !visible;
+        lastRefresh = 0;
+    }
+
+    public void draw(Graphics2D g2, World world, int x, int y) {
+        if (!visible) return;
+        long now = System.currentTimeMillis();
+        if (now - lastRefresh >= REFRESH_MS) refresh(world, now);
+
+        g2.setFont(FONT);
+        FontMetrics fm = g2.getFontMetrics();
+        int lineH = fm.getHeight();
+        int w = 0;
+        for (int i = 0; i < lineCount; i++) w = Math.max(w, fm.stringWidth(lines[i]));
+        g2.setColor(BACKGROUND);
+        g2.fillRect(x, y, w + 12, lineCount * lineH + 8);
+        for (int i = 0; i < lineCount; i++) {
+            g2.setColor(warn[i] ? WARN : TEXT);
+            g2.drawString(lines[i], x + 6, y + 4 + fm.getAscent() + i * lineH);
+        }
+    }
+
+    private void refresh(World world, long now) {
+        // Bộ đếm spawn / xóa mỗi giây
+        long spawned = world.aquarium.director.spawned;
+        long removed = world.aquarium.removed;
+        if (lastRefresh != 0) {
+            double dt = (now - lastRefresh) / 1000.0;
+            spawnRate = (spawned - lastSpawned) / dt;
+            removeRate = (removed - lastRemoved) / dt;
+        }
+        lastSpawned = spawned;
+        lastRemoved = removed;
+        lastRefresh = now;
+
+        int n = 0;
+        lines[n] = String.format("%-14s %7s %7s %7s %7s", "phase (us)", "last", "p50", "p95", "p99");
+        warn[n++] = false;
+        for (Phase p : Phase.values()) {
+            profiler.percentiles(p, pct);
+            String label = (p.nested ? "  " : "") + p.label;
+            lines[n] = String.format("%-14s %7.1f %7.1f %7.1f %7.1f", label, profiler.last(p) / 1000.0,
+                    pct[0] / 1000.0, pct[1] / 1000.0, pct[2] / 1000.0);
+            warn[n++] = !p.nested && pct[1] > frameBudgetNanos;
+        }
+        lines[n] = String.format("fish %d / budget %d  throttle %d", world.aquarium.size(),
+                world.aquarium.director.budget(), world.aquarium.director.throttle());
+        warn[n++] = world.aquarium.director.throttle() > 0;
+        lines[n] = String.format("spawn %.1f/s  removed %.1f/s", spawnRate, removeRate);
+        warn[n++] = false;
+        lines[n] = "F3: hide";
+        warn[n++] = false;
+        lineCount = n;
+    }
+}
@@ -0,0 +1,27 @@
+package perf;
+
+/** Các pha được đo trong một tick mô phỏng và một khung hình vẽ. */
+public enum Phase {
+    // --- Mô phỏng (World.update) ---
+    TICK("tick", false),
+    PLAYER_COLLISION("player coll.", true),
+    PLAYER("player", true),
+    CAMERA("camera", true),
+    AQUARIUM("aquarium", true),
+    PREDATION("predation", true),   // nằm bên trong AQUARIUM
+
+    // --- Vẽ (GamePanel.render) ---
+    RENDER("render", false),
+    BACKGROUND("background", true),
+    ENTITIES("entities", true),
+    HUD("hud", true),
+    BANNER("banner", true);
+
+    public final String label;
+    public final boolean nested; // pha con (thụt lề khi hiển thị)
+
+    Phase(String label, boolean nested) {
+        this.label = label;
+        this.nested = nested;
+    }
+}
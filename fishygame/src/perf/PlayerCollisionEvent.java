@@ -0,0 +1,29 @@
+package perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Player chạm một con cá: ăn được (eaten = false) hoặc bị ăn và mất mạng. */
+@Name("fishygame.PlayerCollision")
+@Label("Player Collision")
+@Category({"Fishy Game", "Gameplay"})
+public class PlayerCollisionEvent extends jdk.jfr.Event {
+    @Label("Species")
+    public String species;
+
+    @Label("Player Eaten")
+    public boolean eaten;
+
+    @Label("Player Size")
+    public int playerSize;
+
+    @Label("Enemy Size")
+    public int enemySize;
+
+    @Label("Score")
+    public int score;
+
+    @Label("Lives")
+    public int lives;
+}
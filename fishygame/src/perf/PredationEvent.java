@@ -0,0 +1,23 @@
+package perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Cá lớn ăn cá bé trong checkPredatorCollision (cả đường Enemy lẫn EnemyStore). */
+@Name("fishygame.Predation")
+@Label("Predation")
+@Category({"Fishy Game", "Gameplay"})
+public class PredationEvent extends jdk.jfr.Event {
+    @Label("Predator")
+    public String predator;
+
+    @Label("Prey")
+    public String prey;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+}
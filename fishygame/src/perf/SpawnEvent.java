@@ -0,0 +1,27 @@
+package perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Aquarium.spawnEntity thả một con cá mới vào bể. */
+@Name("fishygame.Spawn")
+@Label("Spawn")
+@Category({"Fishy Game", "Gameplay"})
+public class SpawnEvent extends jdk.jfr.Event {
+    @Label("Species")
+    public String species;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    // true = vào từ mép trái, bơi sang phải (SpawnDirector.spawnRight)
+    @Label("Swims Right")
+    public boolean swimsRight;
+
+    @Label("Population")
+    public int population;
+}
@@ -0,0 +1,103 @@
+package render;
+
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import perf.AssetLoadEvent;
+
+/**
+ * Quản lý ảnh tập trung: decode PNG song song trên một pool thread, trả về future,
+ * mỗi đường dẫn chỉ decode một lần (cache theo path).
+ *
+ * Lúc khởi động, FishyGame xếp hàng toàn bộ ảnh (menu trước), rồi từng phần
+ * (UI, GamePanel, Player, MonsterType...) chỉ chờ đúng những ảnh nó cần bằng image().
+ * progress() cho biết đã decode được bao nhiêu phần để menu vẽ thanh loading.
+ */
+public class AssetManager {
+    private static AssetManager instance;
+
+    public static synchronized AssetManager get() {
+        if (instance == null) instance = new AssetManager(Runtime.getRuntime().availableProcessors());
+        return instance;
+    }
+
+    private final ExecutorService pool;
+    private final ConcurrentHashMap<String, CompletableFuture<BufferedImage>> images = new ConcurrentHashMap<>();
+    private final AtomicInteger requested = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+
+    public AssetManager(int threads) {
+        AtomicInteger n = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "asset-loader-" + n.incrementAndGet());
+            t.setDaemon(true); // không giữ JVM sống khi đóng cửa sổ
+            return t;
+        });
+        ImageIO.setUseCache(false); // decode thẳng trong bộ nhớ, không ghi file tạm
+    }
+
+    /** Bắt đầu decode ảnh (nếu chưa) và trả về future của nó. */
+    public CompletableFuture<BufferedImage> request(String path) {
+        return images.computeIfAbsent(path, p -> {
+            requested.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> decode(p), pool)
+                    .whenComplete((img, err) -> completed.incrementAndGet());
+        });
+    }
+
+    /** Xếp hàng nhiều ảnh cùng lúc. */
+    public void preload(String... paths) {
+        for (String p : paths) request(p);
+    }
+
+    /** Chờ ảnh decode xong và trả về; null nếu không có file hoặc lỗi. */
+    public BufferedImage image(String path) {
+        try {
+            return request(path).join();
+        } catch (Exception e) {
+            System.err.println("Error loading: " + path);
+            return null;
+        }
+    }
+
+    private BufferedImage decode(String path) {
+        AssetLoadEvent ev = new AssetLoadEvent(); // JFR: thời gian decode từng ảnh
+        ev.begin();
+        BufferedImage img = null;
+        try (InputStream in = AssetManager.class.getResourceAsStream(path)) {
+            if (in != null) img = ImageIO.read(in);
+        } catch (Exception e) {
+            System.err.println("Error loading: " + path);
+        }
+        ev.end();
+        if (ev.shouldCommit()) {
+            ev.path = path;
+            ev.success = img != null;
+            if (img != null) {
+                ev.width = img.getWidth();
+                ev.height = img.getHeight();
+            }
+            ev.commit();
+        }
+        return img;
+    }
+
+    // --- PROGRESS ---
+    public int requestedCount() { return requested.get(); }
+    public int completedCount() { return completed.get(); }
+
+    /** 0..1, phần ảnh đã xếp hàng và decode xong. */
+    public double progress() {
+        int r = requested.get();
+        return r == 0 ? 1.0 : (double) completed.get() / r;
+    }
+
+    public boolean isDone() {
+        return completed.get() >= requested.get();
+    }
+}
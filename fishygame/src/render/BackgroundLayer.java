@@ -0,0 +1,51 @@
+package render;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Lớp nền của màn chơi. Ảnh nền được scale một lần duy nhất về đúng kích thước thế giới
+ * (ảnh compatible, Java2D có thể đẩy lên VRAM) khi vào level; mỗi khung hình chỉ blit
+ * phần nằm trong camera, 1:1 không scale. Chi phí vẽ nền tỉ lệ với kích thước màn hình,
+ * không phụ thuộc kích thước thế giới.
+ */
+public class BackgroundLayer {
+    private BufferedImage source;   // ảnh gốc đang dùng
+    private BufferedImage scaled;   // ảnh đã scale về worldWidth x worldHeight
+    private int worldWidth, worldHeight;
+    private final Color fallback = new Color(0, 100, 200);
+
+    /** Đổi ảnh nền (gọi mỗi khung hình cũng được, chỉ scale lại khi ảnh/kích thước thế giới đổi). */
+    public void use(BufferedImage src, int worldWidth, int worldHeight) {
+        if (src == source && worldWidth == this.worldWidth && worldHeight == this.worldHeight) return;
+        source = src;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        if (scaled != null) scaled.flush();
+        scaled = null;
+        if (src == null) return;
+
+        scaled = SpriteAtlas.createCompatibleImage(worldWidth, worldHeight);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(src, 0, 0, worldWidth, worldHeight, null);
+        g.dispose();
+    }
+
+    /** Blit đúng vùng camera đang nhìn lên (0, 0) .. (screenWidth, screenHeight). */
+    public void draw(Graphics2D g2, int cameraX, int cameraY, int screenWidth, int screenHeight) {
+        if (scaled == null) {
+            g2.setColor(fallback);
+            g2.fillRect(0, 0, screenWidth, screenHeight);
+            return;
+        }
+        int sx1 = Math.max(0, cameraX), sy1 = Math.max(0, cameraY);
+        int sx2 = Math.min(worldWidth, cameraX + screenWidth);
+        int sy2 = Math.min(worldHeight, cameraY + screenHeight);
+        if (sx2 <= sx1 || sy2 <= sy1) return;
+        int dx1 = sx1 - cameraX, dy1 = sy1 - cameraY;
+        g2.drawImage(scaled, dx1, dy1, dx1 + (sx2 - sx1), dy1 + (sy2 - sy1), sx1, sy1, sx2, sy2, null);
+    }
+}
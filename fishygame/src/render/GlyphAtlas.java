@@ -0,0 +1,92 @@
+package render;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Atlas chữ cái cho Banner: mọi glyph trong /res/text/ được đọc MỘT lần (lazy, lần đầu gọi get()),
+ * scale sẵn về GLYPH_SIZE x GLYPH_SIZE và xếp lưới vào một ảnh duy nhất.
+ * Sau đó hiện banner chỉ là tra bảng + blit sub-rect, không I/O, không decode PNG.
+ */
+public class GlyphAtlas {
+    public static final int GLYPH_SIZE = 80;
+    private static final int COLUMNS = 10;
+
+    // Ký tự đặc biệt -> tên file
+    private static final String SYMBOLS = "&*.!~";
+    private static final String[] SYMBOL_FILES = {
+        "symbol_ampersand", "symbol_asterisk", "symbol_dot", "symbol_exclamation", "symbol_tilde"
+    };
+    private static final String CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789" + SYMBOLS;
+
+    private static GlyphAtlas instance;
+
+    /** Atlas dùng chung; lần gọi đầu tiên sẽ load (nên gọi lúc khởi động). */
+    public static synchronized GlyphAtlas get() {
+        if (instance == null) instance = new GlyphAtlas();
+        return instance;
+    }
+
+    private final BufferedImage image;
+    private final Rectangle[] rects = new Rectangle[128]; // ASCII -> vị trí glyph, null nếu không có
+
+    private GlyphAtlas() {
+        int rows = (CHARS.length() + COLUMNS - 1) / COLUMNS;
+        image = SpriteAtlas.createCompatibleImage(COLUMNS * GLYPH_SIZE, rows * GLYPH_SIZE);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+        AssetManager assets = AssetManager.get();
+        preload();
+        int slot = 0;
+        for (int i = 0; i < CHARS.length(); i++) {
+            char c = CHARS.charAt(i);
+            BufferedImage glyph = assets.image(pathOf(c));
+            if (glyph == null) continue;
+            int x = (slot % COLUMNS) * GLYPH_SIZE, y = (slot / COLUMNS) * GLYPH_SIZE;
+            g.drawImage(glyph, x, y, GLYPH_SIZE, GLYPH_SIZE, null);
+            rects[c] = new Rectangle(x, y, GLYPH_SIZE, GLYPH_SIZE);
+            slot++;
+        }
+        g.dispose();
+    }
+
+    private static String pathOf(char c) {
+        int s = SYMBOLS.indexOf(c);
+        return "/res/text/" + (s >= 0 ? SYMBOL_FILES[s] : String.valueOf(c)) + ".png";
+    }
+
+    /** Xếp hàng decode mọi glyph trên AssetManager (không chờ). */
+    public static void preload() {
+        AssetManager assets = AssetManager.get();
+        for (int i = 0; i < CHARS.length(); i++) assets.request(pathOf(CHARS.charAt(i)));
+    }
+
+    /** Vị trí glyph của ký tự c (không phân biệt hoa thường), null nếu không có (VD dấu cách). */
+    public Rectangle glyph(char c) {
+        c = Character.toUpperCase(c);
+        return c < rects.length ? rects[c] : null;
+    }
+
+    /** Blit một glyph (đã đúng kích thước, không scale). */
+    public void draw(Graphics2D g2, Rectangle glyph, int x, int y) {
+        g2.drawImage(image, x, y, x + glyph.width, y + glyph.height,
+                glyph.x, glyph.y, glyph.x + glyph.width, glyph.y + glyph.height, null);
+    }
+
+    /** Ghép sẵn cả chuỗi thành một ảnh (các chữ cách nhau spacing px). */
+    public BufferedImage compose(String text, int spacing) {
+        int len = text.length();
+        int width = Math.max(1, len * GLYPH_SIZE + (len - 1) * spacing);
+        BufferedImage out = SpriteAtlas.createCompatibleImage(width, GLYPH_SIZE);
+        Graphics2D g = out.createGraphics();
+        for (int i = 0; i < len; i++) {
+            Rectangle r = glyph(text.charAt(i));
+            if (r != null) draw(g, r, i * (GLYPH_SIZE + spacing), 0);
+        }
+        g.dispose();
+        return out;
+    }
+}
@@ -0,0 +1,62 @@
+package render;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Lớp HUD vẽ sẵn ra ảnh offscreen. Chỉ vẽ lại khi dữ liệu hiển thị đổi
+ * (điểm, mạng, level; mốc tiến hóa suy ra từ điểm + level), còn lại mỗi khung hình
+ * chỉ tốn một lần blit.
+ *
+ * Cách dùng:
+ *   if (hud.update(score, lives, levelNum, level)) { Graphics2D g = hud.beginRedraw(); ...; g.dispose(); }
+ *   hud.draw(g2, 0, 0);
+ */
+public class HudLayer {
+    private final BufferedImage image;
+
+    // Trạng thái đã vẽ vào image
+    private int score, lives, levelNum;
+    private Object levelRef;   // đổi object Level (reset game / qua màn) cũng phải vẽ lại (icon cá)
+    private boolean dirty = true;
+
+    public long redraws = 0;
+
+    public HudLayer(int width, int height) {
+        image = SpriteAtlas.createCompatibleImage(width, height);
+    }
+
+    /** @return true nếu HUD cần vẽ lại (gọi beginRedraw rồi vẽ) */
+    public boolean update(int score, int lives, int levelNum, Object levelRef) {
+        if (!dirty && score == this.score && lives == this.lives
+                && levelNum == this.levelNum && levelRef == this.levelRef) {
+            return false;
+        }
+        this.score = score;
+        this.lives = lives;
+        this.levelNum = levelNum;
+        this.levelRef = levelRef;
+        dirty = false;
+        return true;
+    }
+
+    /** Xóa trắng (trong suốt) và trả về Graphics để vẽ lại HUD; người gọi phải dispose(). */
+    public Graphics2D beginRedraw() {
+        redraws++;
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+        return g;
+    }
+
+    /** Bắt buộc vẽ lại ở khung hình sau (VD đổi asset). */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    public void draw(Graphics2D g2, int x, int y) {
+        g2.drawImage(image, x, y, null);
+    }
+}
@@ -0,0 +1,195 @@
+package render;
+
+import entity.EntityState;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Atlas sprite của một loài: mọi frame swim/turn/eat/idle được xếp chung vào MỘT ảnh
+ * compatible (cùng định dạng với màn hình) kèm bảng chỉ mục vị trí từng frame.
+ *
+ * Thay vì hàng chục BufferedImage riêng lẻ, mỗi loài chỉ còn một surface; vẽ một frame
+ * là một lần drawImage(sub-rect) từ surface đó. Lật ngang bằng cách đảo tọa độ đích,
+ * không cần AffineTransform.
+ *
+ * Xếp theo kiểu "shelf": frame cao nhất trước, lấp từng hàng tới MAX_WIDTH rồi xuống hàng.
+ *
+ * draw() lấy frame đã scale + lật sẵn từ SpriteCache (blit không scale);
+ * drawDirect() vẽ thẳng sub-rect từ atlas (dùng khi tắt cache bằng -Dfishy.spriteCache=false).
+ */
+public class SpriteAtlas {
+    public static final int MAX_WIDTH = 2048;
+    private static final int PADDING = 1; // chống lem pixel của frame bên cạnh khi scale
+    private static final boolean USE_CACHE = !"false".equals(System.getProperty("fishy.spriteCache"));
+    private static int nextId = 0;
+
+    final int id = nextId++; // khóa trong SpriteCache
+
+    private final BufferedImage image;
+    // frames[state.code][i] = vị trí frame i của animation đó trong image (null nếu ảnh lỗi)
+    private final Rectangle[][] frames;
+
+    private SpriteAtlas(BufferedImage image, Rectangle[][] frames) {
+        this.image = image;
+        this.frames = frames;
+    }
+
+    // ===================== LOADER =====================
+
+    /**
+     * Đọc các file folder + prefix + "swim1.png"... rồi xếp vào atlas.
+     * VD: load("/res/minnow/", "minnow", 15, 5, 0, 0)
+     */
+    public static SpriteAtlas load(String folder, String prefix, int swimCount, int turnCount,
+                                   int eatCount, int idleCount) {
+        Builder b = new Builder();
+        b.add(EntityState.SWIM, readFrames(folder, prefix + "swim", swimCount));
+        b.add(EntityState.TURN, readFrames(folder, prefix + "turn", turnCount));
+        b.add(EntityState.EAT, readFrames(folder, prefix + "eat", eatCount));
+        b.add(EntityState.IDLE, readFrames(folder, prefix + "idle", idleCount));
+        return b.build();
+    }
+
+    /** Chỉ xếp hàng decode (song song trên AssetManager), không chờ. */
+    public static void preload(String folder, String prefix, int swimCount, int turnCount,
+                               int eatCount, int idleCount) {
+        AssetManager assets = AssetManager.get();
+        String[] anims = {"swim", "turn", "eat", "idle"};
+        int[] counts = {swimCount, turnCount, eatCount, idleCount};
+        for (int a = 0; a < anims.length; a++) {
+            for (int i = 0; i < counts[a]; i++) assets.request(framePath(folder, prefix + anims[a], i));
+        }
+    }
+
+    // Path: /res/folder/prefix + index + .png
+    private static String framePath(String folder, String prefix, int i) {
+        return folder + prefix + (i + 1) + ".png";
+    }
+
+    private static BufferedImage[] readFrames(String folder, String prefix, int count) {
+        AssetManager assets = AssetManager.get();
+        // Xếp hàng cả loạt trước để các frame được decode song song, rồi mới chờ
+        for (int i = 0; i < count; i++) assets.request(framePath(folder, prefix, i));
+        BufferedImage[] result = new BufferedImage[count];
+        for (int i = 0; i < count; i++) result[i] = assets.image(framePath(folder, prefix, i));
+        return result;
+    }
+
+    // ===================== BUILDER =====================
+
+    public static class Builder {
+        private final BufferedImage[][] sources = new BufferedImage[EntityState.values().length][];
+
+        public Builder add(EntityState state, BufferedImage[] images) {
+            sources[state.code] = images;
+            return this;
+        }
+
+        public SpriteAtlas build() {
+            Rectangle[][] rects = new Rectangle[sources.length][];
+            ArrayList<int[]> order = new ArrayList<>(); // {state, frame}
+            for (int s = 0; s < sources.length; s++) {
+                BufferedImage[] imgs = sources[s] == null ? new BufferedImage[0] : sources[s];
+                rects[s] = new Rectangle[imgs.length];
+                for (int i = 0; i < imgs.length; i++) {
+                    if (imgs[i] != null) order.add(new int[] {s, i});
+                }
+            }
+            // Cao trước -> các hàng (shelf) ít bị hụt
+            order.sort((a, b) -> sources[b[0]][b[1]].getHeight() - sources[a[0]][a[1]].getHeight());
+
+            // 1. Tính vị trí
+            int penX = 0, penY = 0, shelfH = 0, atlasW = 1;
+            for (int[] f : order) {
+                BufferedImage img = sources[f[0]][f[1]];
+                int w = img.getWidth() + PADDING, h = img.getHeight() + PADDING;
+                if (penX > 0 && penX + w > MAX_WIDTH) { // xuống hàng mới
+                    penY += shelfH;
+                    penX = 0;
+                    shelfH = 0;
+                }
+                rects[f[0]][f[1]] = new Rectangle(penX, penY, img.getWidth(), img.getHeight());
+                penX += w;
+                shelfH = Math.max(shelfH, h);
+                atlasW = Math.max(atlasW, penX);
+            }
+            int atlasH = Math.max(1, penY + shelfH);
+
+            // 2. Chép pixel vào một ảnh duy nhất
+            BufferedImage atlas = createCompatibleImage(atlasW, atlasH);
+            Graphics2D g = atlas.createGraphics();
+            for (int[] f : order) {
+                Rectangle r = rects[f[0]][f[1]];
+                g.drawImage(sources[f[0]][f[1]], r.x, r.y, null);
+            }
+            g.dispose();
+            return new SpriteAtlas(atlas, rects);
+        }
+    }
+
+    /** Ảnh trong suốt cùng định dạng với màn hình (blit nhanh nhất); headless thì dùng ARGB. */
+    public static BufferedImage createCompatibleImage(int w, int h) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(w, h, Transparency.TRANSLUCENT);
+    }
+
+    // ===================== QUERY / DRAW =====================
+
+    public int frameCount(EntityState state) {
+        return frames[state.code].length;
+    }
+
+    public Rectangle frame(EntityState state, int index) {
+        Rectangle[] f = frames[state.code];
+        return index >= 0 && index < f.length ? f[index] : null;
+    }
+
+    /**
+     * Vẽ frame index của animation state vào (x, y, w, h) trên màn hình.
+     * flip = true: lật ngang (cá quay sang phải).
+     * @return false nếu frame không tồn tại
+     */
+    public boolean draw(Graphics2D g2, EntityState state, int index, int x, int y, int w, int h, boolean flip) {
+        if (!USE_CACHE) return drawDirect(g2, state, index, x, y, w, h, flip);
+        BufferedImage img = SpriteCache.shared().get(this, state, index, w, h, flip);
+        if (img == null) return false;
+        g2.drawImage(img, x, y, null);
+        return true;
+    }
+
+    /** Vẽ sub-rect thẳng từ atlas, scale khi vẽ; lật bằng cách đảo x đích. */
+    public boolean drawDirect(Graphics2D g2, EntityState state, int index, int x, int y, int w, int h, boolean flip) {
+        Rectangle r = frame(state, index);
+        if (r == null) return false;
+        int dx1 = flip ? x + w : x;
+        int dx2 = flip ? x : x + w;
+        g2.drawImage(image, dx1, y, dx2, y + h, r.x, r.y, r.x + r.width, r.y + r.height, null);
+        return true;
+    }
+
+    /** Ảnh con (dùng chung raster với atlas) của một frame, VD icon trên HUD. */
+    public BufferedImage frameImage(EntityState state, int index) {
+        Rectangle r = frame(state, index);
+        return r == null ? null : image.getSubimage(r.x, r.y, r.width, r.height);
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    @Override
+    public String toString() {
+        int n = 0;
+        for (Rectangle[] f : frames) n += f.length;
+        return "SpriteAtlas[" + image.getWidth() + "x" + image.getHeight() + ", frames=" + n
+                + ", perState=" + Arrays.toString(Arrays.stream(frames).mapToInt(f -> f.length).toArray()) + "]";
+    }
+}
@@ -0,0 +1,180 @@
+package render;
+
+import entity.EntityState;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Cache các frame đã được scale sẵn đúng kích thước vẽ và lật sẵn theo hướng bơi.
+ * Khi vẽ chỉ còn drawImage(img, x, y, null): không scale, không AffineTransform.
+ *
+ * Khóa = (atlas, state, frame, width, height, flip). Mỗi loài chỉ vẽ ở một kích thước,
+ * player ở 3 kích thước (scale 1.0 / 1.5 / 2.0), nên số mục thực tế nhỏ.
+ * Tổng dung lượng bị giới hạn bởi budget (byte); vượt thì bỏ mục dùng lâu nhất (LRU).
+ *
+ * Bảng băm + danh sách LRU tự cài (móc nối trong Entry) để lúc cache hit không cấp phát gì.
+ * Chỉ dùng từ thread vẽ.
+ */
+public final class SpriteCache {
+    private static SpriteCache shared;
+
+    /** Cache dùng chung, budget đặt bằng -Dfishy.spriteCacheMB (mặc định 48MB). */
+    public static SpriteCache shared() {
+        if (shared == null) {
+            shared = new SpriteCache(Integer.getInteger("fishy.spriteCacheMB", 48) * 1024L * 1024L);
+        }
+        return shared;
+    }
+
+    private static final class Entry {
+        SpriteAtlas atlas;
+        int state, frame, w, h;
+        boolean flip;
+        BufferedImage image;
+        long bytes;
+        Entry prev, next;   // danh sách LRU
+        Entry chain;        // bucket của bảng băm
+    }
+
+    private final long budget;
+    private long usedBytes = 0;
+    private int size = 0;
+    private Entry[] table = new Entry[256];
+    private Entry head, tail; // head = vừa dùng, tail = lâu nhất
+
+    // Thống kê
+    public long hits = 0;
+    public long misses = 0;
+    public long evictions = 0;
+
+    public SpriteCache(long budgetBytes) {
+        this.budget = budgetBytes;
+    }
+
+    /**
+     * Frame đã scale về w x h (lật ngang nếu flip). Trả về null nếu frame không tồn tại.
+     */
+    public BufferedImage get(SpriteAtlas atlas, EntityState state, int frame, int w, int h, boolean flip) {
+        if (w <= 0 || h <= 0) return null;
+        int s = state.code;
+        int bucket = hash(atlas.id, s, frame, w, h, flip) & (table.length - 1);
+        for (Entry e = table[bucket]; e != null; e = e.chain) {
+            if (e.atlas == atlas && e.state == s && e.frame == frame && e.w == w && e.h == h && e.flip == flip) {
+                hits++;
+                moveToHead(e);
+                return e.image;
+            }
+        }
+
+        misses++;
+        BufferedImage img = render(atlas, state, frame, w, h, flip);
+        if (img == null) return null;
+        long bytes = (long) w * h * 4;
+        if (bytes > budget) return img; // quá lớn, không giữ lại
+
+        Entry e = new Entry();
+        e.atlas = atlas; e.state = s; e.frame = frame; e.w = w; e.h = h; e.flip = flip;
+        e.image = img;
+        e.bytes = bytes;
+        e.chain = table[bucket];
+        table[bucket] = e;
+        linkHead(e);
+        usedBytes += bytes;
+        size++;
+
+        while (usedBytes > budget && tail != null && tail != e) evict(tail);
+        if (size > table.length) rehash();
+        return img;
+    }
+
+    private static BufferedImage render(SpriteAtlas atlas, EntityState state, int frame, int w, int h, boolean flip) {
+        if (atlas.frame(state, frame) == null) return null;
+        BufferedImage img = SpriteAtlas.createCompatibleImage(w, h);
+        Graphics2D g = img.createGraphics();
+        // Chỉ scale một lần nên dùng nội suy đẹp
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        atlas.drawDirect(g, state, frame, 0, 0, w, h, flip);
+        g.dispose();
+        return img;
+    }
+
+    private static int hash(int atlasId, int state, int frame, int w, int h, boolean flip) {
+        int x = atlasId;
+        x = x * 31 + state;
+        x = x * 31 + frame;
+        x = x * 31 + w;
+        x = x * 31 + h;
+        x = x * 2 + (flip ? 1 : 0);
+        return x ^ (x >>> 16);
+    }
+
+    // ===================== LRU / BẢNG BĂM =====================
+
+    private void linkHead(Entry e) {
+        e.prev = null;
+        e.next = head;
+        if (head != null) head.prev = e;
+        head = e;
+        if (tail == null) tail = e;
+    }
+
+    private void unlink(Entry e) {
+        if (e.prev != null) e.prev.next = e.next; else head = e.next;
+        if (e.next != null) e.next.prev = e.prev; else tail = e.prev;
+        e.prev = e.next = null;
+    }
+
+    private void moveToHead(Entry e) {
+        if (head == e) return;
+        unlink(e);
+        linkHead(e);
+    }
+
+    private void evict(Entry e) {
+        unlink(e);
+        int bucket = hash(e.atlas.id, e.state, e.frame, e.w, e.h, e.flip) & (table.length - 1);
+        Entry prev = null;
+        for (Entry c = table[bucket]; c != null; prev = c, c = c.chain) {
+            if (c == e) {
+                if (prev == null) table[bucket] = c.chain; else prev.chain = c.chain;
+                break;
+            }
+        }
+        usedBytes -= e.bytes;
+        size--;
+        evictions++;
+        e.image.flush();
+        e.image = null;
+    }
+
+    private void rehash() {
+        Entry[] old = table;
+        table = new Entry[old.length * 2];
+        for (Entry head : old) {
+            Entry e = head;
+            while (e != null) {
+                Entry next = e.chain;
+                int bucket = hash(e.atlas.id, e.state, e.frame, e.w, e.h, e.flip) & (table.length - 1);
+                e.chain = table[bucket];
+                table[bucket] = e;
+                e = next;
+            }
+        }
+    }
+
+    /** Bỏ hết (VD khi đổi level, atlas cũ không còn dùng). */
+    public void clear() {
+        while (tail != null) evict(tail);
+    }
+
+    public long usedBytes() { return usedBytes; }
+    public long budget() { return budget; }
+    public int size() { return size; }
+
+    @Override
+    public String toString() {
+        return "SpriteCache[entries=" + size + ", used=" + (usedBytes >> 10) + "KB/" + (budget >> 10)
+                + "KB, hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+    }
+}